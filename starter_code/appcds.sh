@@ -0,0 +1,54 @@
+#!/bin/sh
+# Builds an AppCDS archive for the packaged application (mvn package), so the deployed JVM maps the classes it
+# loads at startup instead of parsing them from jars. Needs Java 13 or later. Usage:
+#   ./appcds.sh [war] [output directory]
+# The war's libraries and the attached classes jar are unpacked into the output directory: CDS only archives
+# classes from plain jars on the class path, not from the war's nested jars or from WEB-INF/classes. A training
+# run of the faststart profile against a throwaway database dumps the archive when it is stopped. Start the
+# application with the printed command, from the directory holding its ./data database; the archive is only used
+# by the same JDK build with exactly that class path, and the JVM falls back to loading classes normally otherwise.
+set -e
+
+war=${1:-$(ls target/auth-course-*.war | head -n 1)}
+out=${2:-target/appcds}
+classes=${war%.war}-classes.jar
+java=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+[ -f "$war" ] && [ -f "$classes" ] || { echo "no $war or $classes, run mvn package first" >&2; exit 1; }
+rm -rf "$out"
+mkdir -p "$out/lib" "$out/train"
+out=$(cd "$out" && pwd)
+unzip -q -j "$war" 'WEB-INF/lib/*' -d "$out/lib"
+cp "$classes" "$out/lib/"
+# the application's classes first, then the libraries in the order the executable war loads them
+classpath=$out/lib/$(basename "$classes")
+for jar in $(unzip -Z1 "$war" 'WEB-INF/lib/*.jar'); do
+	classpath=$classpath:$out/lib/$(basename "$jar")
+done
+echo "$classpath" > "$out/classpath"
+
+train() {
+	log=$out/train/console-$1.log
+	profile=$2
+	shift 2
+	(cd "$out/train" && exec "$java" "$@" -cp "$(cat "$out/classpath")" com.example.demo.MaggieApplication \
+		--spring.profiles.active="$profile" --server.port=0 --logging.file=app.log) > "$log" 2>&1 &
+	pid=$!
+	for i in $(seq 1 120); do
+		grep -q "catalog loaded" "$log" && break
+		kill -0 $pid 2>/dev/null || { echo "the training run exited, see $log" >&2; exit 1; }
+		sleep 1
+	done
+	# SIGTERM, so the archive is dumped at exit
+	kill $pid
+	wait $pid || true
+}
+
+# the first run creates the database faststart expects, the second one loads the faststart classes
+train prepare persistent
+train dump faststart -XX:ArchiveClassesAtExit="$out/app.jsa"
+[ -f "$out/app.jsa" ] || { echo "the training run did not write $out/app.jsa" >&2; exit 1; }
+rm -rf "$out/train"
+
+echo "$out/app.jsa written, start the application with:"
+echo "$java -XX:SharedArchiveFile=$out/app.jsa -cp \"\$(cat $out/classpath)\" com.example.demo.MaggieApplication --spring.profiles.active=faststart"
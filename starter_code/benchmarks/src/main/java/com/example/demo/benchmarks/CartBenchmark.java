@@ -0,0 +1,57 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds and removes one unit of the last item in carts of growing size, which is the worst case for the line
+ * lookup, and keeps the cart unchanged between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+	@Param({"10", "100", "1000"})
+	int lines;
+
+	Cart cart;
+	Item last;
+
+	@Setup
+	public void setUp() {
+		cart = Fixtures.cart(lines);
+		last = cart.getItems().get(lines - 1).getItem();
+	}
+
+	@Benchmark
+	public long addItem() {
+		cart.addItem(last, 1);
+		cart.removeItem(last, 1);
+		return cart.getTotalMinorUnits();
+	}
+
+	@Benchmark
+	public long addNewLine() {
+		Item item = Fixtures.item(-1L);
+		cart.addItem(item, 3);
+		cart.removeItem(item, 3);
+		return cart.getTotalMinorUnits();
+	}
+}
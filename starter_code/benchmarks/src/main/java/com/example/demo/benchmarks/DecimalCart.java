@@ -0,0 +1,76 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Item;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The add, remove and total logic of {@link com.example.demo.model.persistence.Cart} as it was before cart money
+ * moved to minor units: {@link BigDecimal} unit prices per line and a {@link BigDecimal} running total. Kept without
+ * the JPA mapping so {@link PricingBenchmark} can run it next to the current cart.
+ */
+final class DecimalCart {
+
+	static final class Line {
+		final Item item;
+		final BigDecimal unitPrice;
+		int quantity;
+
+		Line(Item item, BigDecimal unitPrice) {
+			this.item = item;
+			this.unitPrice = unitPrice;
+		}
+	}
+
+	private final List<Line> items = new ArrayList<>();
+	private BigDecimal total;
+
+	Line addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return null;
+		}
+		Line line = findLine(item);
+		if(line == null) {
+			line = new Line(item, item.getPrice());
+			items.add(line);
+		}
+		line.quantity += quantity;
+		if(total == null) {
+			total = new BigDecimal(0);
+		}
+		total = total.add(line.unitPrice.multiply(BigDecimal.valueOf(quantity)));
+		return line;
+	}
+
+	Line removeItem(Item item, int quantity) {
+		Line line = findLine(item);
+		if(line == null || quantity <= 0) {
+			return null;
+		}
+		int removed = Math.min(quantity, line.quantity);
+		line.quantity -= removed;
+		if(line.quantity == 0) {
+			items.remove(line);
+		}
+		if(total == null) {
+			total = new BigDecimal(0);
+		}
+		total = total.subtract(line.unitPrice.multiply(BigDecimal.valueOf(removed)));
+		return line;
+	}
+
+	BigDecimal getTotal() {
+		return total;
+	}
+
+	private Line findLine(Item item) {
+		for(Line line : items) {
+			if(line.item.equals(item)) {
+				return line;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+
+import java.math.BigDecimal;
+
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static Item item(long id) {
+		return Item.builder()
+				.id(id)
+				.name("item " + id)
+				.description("benchmark item " + id)
+				.price(new BigDecimal("1.99").add(BigDecimal.valueOf(id % 100)))
+				.build();
+	}
+
+	/**
+	 * A cart owned by a user with {@code lines} distinct items, two units each.
+	 */
+	static Cart cart(int lines) {
+		Cart cart = new Cart();
+		cart.setId(1L);
+		User user = User.builder().id(1L).username("benchmark-user").cart(cart).build();
+		cart.setUser(user);
+		for(long id = 1; id <= lines; id++) {
+			cart.addItem(item(id), 2);
+		}
+		return cart;
+	}
+
+	/**
+	 * The same lines as {@link #cart(int)}, held by the pre-minor-units cart logic.
+	 */
+	static DecimalCart decimalCart(int lines) {
+		DecimalCart cart = new DecimalCart();
+		for(long id = 1; id <= lines; id++) {
+			cart.addItem(item(id), 2);
+		}
+		return cart;
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes carts and orders the way the controllers return them, with one shared {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	@Param({"10", "100"})
+	int lines;
+
+	ObjectMapper objectMapper;
+	Cart cart;
+	UserOrder order;
+
+	@Setup
+	public void setUp() {
+		objectMapper = new ObjectMapper();
+		cart = Fixtures.cart(lines);
+		order = UserOrder.createFromCart(cart);
+		order.setId(1L);
+	}
+
+	@Benchmark
+	public byte[] serializeCart() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(cart);
+	}
+
+	@Benchmark
+	public byte[] serializeOrder() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(order);
+	}
+}
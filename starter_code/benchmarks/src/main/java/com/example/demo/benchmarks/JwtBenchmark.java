@@ -0,0 +1,58 @@
+package com.example.demo.benchmarks;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs and verifies tokens through {@link JwtTokenProvider}, as the login and verification filters do, and
+ * measures the cached path the verification filter takes for a token it has already seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+	JwtTokenProvider tokenProvider;
+	VerifiedTokenCache tokenCache;
+	String token;
+
+	@Setup
+	public void setUp() {
+		tokenProvider = new JwtTokenProvider();
+		tokenCache = new VerifiedTokenCache();
+		token = tokenProvider.createAccessToken("benchmark-user");
+		DecodedJWT jwt = tokenProvider.verifyAccessToken(token);
+		tokenCache.put(token, jwt.getSubject(), jwt.getExpiresAt());
+	}
+
+	@Benchmark
+	public String sign() {
+		return tokenProvider.createAccessToken("benchmark-user");
+	}
+
+	@Benchmark
+	public DecodedJWT verify() {
+		return tokenProvider.verifyAccessToken(token);
+	}
+
+	@Benchmark
+	public String verifyCached() {
+		return tokenCache.getSubject(token);
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the cart's own {@code addItem}, {@code removeItem} and {@code getTotal} on the current minor-unit
+ * {@link Cart} and on {@link DecimalCart}, the same logic as it was with {@link java.math.BigDecimal} money, over
+ * identical lines. Every intermediate total goes to the {@link Blackhole}, so an add followed by its remove cannot
+ * be folded away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+	@Param({"10", "100", "1000"})
+	int lines;
+
+	Cart cart;
+	DecimalCart decimalCart;
+	Item first;
+	Item absent;
+
+	@Setup
+	public void setUp() {
+		cart = Fixtures.cart(lines);
+		decimalCart = Fixtures.decimalCart(lines);
+		// the first line is found without scanning the cart, so the money arithmetic is what differs
+		first = cart.getItems().get(0).getItem();
+		absent = Fixtures.item(lines + 1L);
+	}
+
+	@Benchmark
+	public void decimalAddAndRemove(Blackhole blackhole) {
+		decimalCart.addItem(first, 1);
+		blackhole.consume(decimalCart.getTotal());
+		decimalCart.removeItem(first, 1);
+		blackhole.consume(decimalCart.getTotal());
+	}
+
+	@Benchmark
+	public void minorUnitsAddAndRemove(Blackhole blackhole) {
+		cart.addItem(first, 1);
+		blackhole.consume(cart.getTotal());
+		cart.removeItem(first, 1);
+		blackhole.consume(cart.getTotal());
+	}
+
+	/**
+	 * A line for an item the cart does not hold yet, created and then removed again. The decimal cart scans every
+	 * line to find it; the current cart looks the line up by item id.
+	 */
+	@Benchmark
+	public void decimalAddAndRemoveNewLine(Blackhole blackhole) {
+		blackhole.consume(decimalCart.addItem(absent, 3));
+		blackhole.consume(decimalCart.getTotal());
+		decimalCart.removeItem(absent, 3);
+		blackhole.consume(decimalCart.getTotal());
+	}
+
+	@Benchmark
+	public void minorUnitsAddAndRemoveNewLine(Blackhole blackhole) {
+		blackhole.consume(cart.addItem(absent, 3));
+		blackhole.consume(cart.getTotal());
+		cart.removeItem(absent, 3);
+		blackhole.consume(cart.getTotal());
+	}
+}
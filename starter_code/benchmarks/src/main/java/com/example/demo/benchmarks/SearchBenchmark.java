@@ -0,0 +1,70 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.service.ItemSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches a large catalog for a one-letter prefix, which matches every item, as the first keystroke of a
+ * search box would, and for a term that matches a single item. The description-only prefix also matches every
+ * item, but never with the best score a query could reach, so no search can stop early.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"10000", "100000"})
+	int items;
+
+	ItemSearchIndex index;
+
+	@Setup
+	public void setUp() {
+		List<Item> catalog = new ArrayList<>(items);
+		for(long id = 1; id <= items; id++) {
+			catalog.add(Fixtures.item(id));
+		}
+		// loaded from the list, so the repository is never asked
+		ItemRepository repository = (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+				new Class<?>[] {ItemRepository.class}, (proxy, method, args) -> {
+					throw new UnsupportedOperationException(method.getName());
+				});
+		index = new ItemSearchIndex(repository);
+		index.load(catalog);
+	}
+
+	@Benchmark
+	public List<Item> broadPrefix() {
+		return index.search("i", 20);
+	}
+
+	@Benchmark
+	public List<Item> descriptionOnlyPrefix() {
+		return index.search("b", 20);
+	}
+
+	@Benchmark
+	public List<Item> singleMatch() {
+		return index.search("4242", 20);
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency recorders shared by all sessions. Latencies are kept in microseconds with three
+ * significant digits; failed calls are timed too and also counted as errors.
+ */
+final class EndpointStats {
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+	void record(String endpoint, long elapsedNanos, boolean ok) {
+		long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS);
+		recorders.computeIfAbsent(endpoint, e -> new Recorder(HIGHEST_TRACKABLE_MICROS, 3)).recordValue(micros);
+		if(!ok) {
+			errors.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+		}
+	}
+
+	/**
+	 * Counts an error that has no latency to go with it. The name is reported like an endpoint with no calls.
+	 *
+	 * @return the errors counted under {@code name} so far
+	 */
+	long fail(String name) {
+		recorders.computeIfAbsent(name, e -> new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+		LongAdder count = errors.computeIfAbsent(name, e -> new LongAdder());
+		count.increment();
+		return count.sum();
+	}
+
+	/**
+	 * Drops everything recorded so far, e.g. at the end of the warm-up.
+	 */
+	void reset() {
+		recorders.values().forEach(Recorder::reset);
+		errors.values().forEach(LongAdder::reset);
+	}
+
+	/**
+	 * @return the latencies recorded since the last reset, by endpoint name
+	 */
+	Map<String, Histogram> snapshot() {
+		Map<String, Histogram> histograms = new TreeMap<>();
+		recorders.forEach((endpoint, recorder) -> histograms.put(endpoint, recorder.getIntervalHistogram()));
+		return histograms;
+	}
+
+	long errors(String endpoint) {
+		LongAdder count = errors.get(endpoint);
+		return count == null ? 0 : count.sum();
+	}
+}
@@ -0,0 +1,122 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.MaggieApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the shopping flow at each configured concurrency level and reports per-endpoint throughput and latency
+ * percentiles, both on stdout and as CSV ({@code loadtest.report}). Without {@code loadtest.target} the application is started in this JVM
+ * on a random port, once per {@code loadtest.threads} mode ({@code platform}, {@code virtual} or both), so one run compares
+ * Tomcat's worker pool with virtual-thread request execution.
+ */
+public final class LoadTest {
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+		try (PrintWriter csv = csv(options.report)) {
+			if(options.target != null) {
+				for(int concurrency : options.concurrencyLevels) {
+					run(options.target, "remote", concurrency, options, csv);
+				}
+				return;
+			}
+			for(String threads : options.threadModes) {
+				ServletWebServerApplicationContext application = start(threads, options);
+				try {
+					String baseUrl = "http://localhost:" + application.getWebServer().getPort();
+					for(int concurrency : options.concurrencyLevels) {
+						run(baseUrl, threads, concurrency, options, csv);
+					}
+				} finally {
+					application.close();
+				}
+			}
+		}
+	}
+
+	private static ServletWebServerApplicationContext start(String threads, LoadTestOptions options) {
+		File log = new File(new File(options.report).getAbsoluteFile().getParentFile(), "loadtest-app-" + threads + ".log");
+		return (ServletWebServerApplicationContext) SpringApplication.run(MaggieApplication.class,
+				"--server.port=0", "--logging.file=" + log, "--logging.level.root=WARN",
+				"--spring.threads.virtual.enabled=" + threads.equals("virtual"));
+	}
+
+	private static void run(String baseUrl, String threads, int concurrency, LoadTestOptions options, PrintWriter csv) throws InterruptedException {
+		EndpointStats stats = new EndpointStats();
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong sessions = new AtomicLong();
+		List<Thread> shoppers = new ArrayList<>();
+		for(int i = 0; i < concurrency; i++) {
+			Thread shopper = new Thread(new ShoppingSession(baseUrl, options, stats, running, sessions), "shopper-" + i);
+			shopper.setDaemon(true);
+			shoppers.add(shopper);
+			shopper.start();
+		}
+		TimeUnit.SECONDS.sleep(options.warmupSeconds);
+		stats.reset();
+		long sessionsBefore = sessions.get();
+		long start = System.nanoTime();
+		TimeUnit.SECONDS.sleep(options.durationSeconds);
+		Map<String, Histogram> histograms = stats.snapshot();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long completed = sessions.get() - sessionsBefore;
+		running.set(false);
+		for(Thread shopper : shoppers) {
+			shopper.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		report(threads, concurrency, seconds, completed, histograms, stats, csv);
+	}
+
+	private static void report(String threads, int concurrency, double seconds, long sessions, Map<String, Histogram> histograms,
+							   EndpointStats stats, PrintWriter csv) {
+		long requests = histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+		System.out.printf(Locale.ROOT, "%n%s threads, concurrency %d: %.1f requests/s, %.2f sessions/s over %.0fs%n",
+				threads, concurrency, requests / seconds, sessions / seconds, seconds);
+		System.out.printf(Locale.ROOT, "%-28s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+				"endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		histograms.forEach((endpoint, histogram) -> {
+			long errors = stats.errors(endpoint);
+			double throughput = histogram.getTotalCount() / seconds;
+			System.out.printf(Locale.ROOT, "%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+					endpoint, histogram.getTotalCount(), errors, throughput,
+					millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+					histogram.getMaxValue() / 1000.0);
+			csv.printf(Locale.ROOT, "%s,%d,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+					threads, concurrency, endpoint, histogram.getTotalCount(), errors, throughput,
+					millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+					histogram.getMaxValue() / 1000.0);
+		});
+		csv.flush();
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	private static PrintWriter csv(String path) throws IOException {
+		File file = new File(path);
+		if(file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		PrintWriter csv = new PrintWriter(new FileWriter(file));
+		csv.println("threads,concurrency,endpoint,count,errors,requests_per_second,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms");
+		return csv;
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties.
+ */
+final class LoadTestOptions {
+	final List<Integer> concurrencyLevels;
+	final List<String> threadModes;
+	final int warmupSeconds;
+	final int durationSeconds;
+	final int ordersPerSession;
+	final int itemsPerOrder;
+	final String target;
+	final String report;
+
+	private LoadTestOptions(List<Integer> concurrencyLevels, List<String> threadModes, int warmupSeconds, int durationSeconds,
+							int ordersPerSession, int itemsPerOrder, String target, String report) {
+		this.concurrencyLevels = concurrencyLevels;
+		this.threadModes = threadModes;
+		this.warmupSeconds = warmupSeconds;
+		this.durationSeconds = durationSeconds;
+		this.ordersPerSession = ordersPerSession;
+		this.itemsPerOrder = itemsPerOrder;
+		this.target = target;
+		this.report = report;
+	}
+
+	static LoadTestOptions fromSystemProperties() {
+		List<Integer> levels = new ArrayList<>();
+		for(String level : System.getProperty("loadtest.concurrency", "1,8,32").split(",")) {
+			levels.add(Integer.valueOf(level.trim()));
+		}
+		List<String> modes = new ArrayList<>();
+		for(String mode : System.getProperty("loadtest.threads", "platform").split(",")) {
+			mode = mode.trim();
+			if(!mode.equals("platform") && !mode.equals("virtual")) {
+				throw new IllegalArgumentException("loadtest.threads takes platform and/or virtual, not " + mode);
+			}
+			modes.add(mode);
+		}
+		return new LoadTestOptions(Collections.unmodifiableList(levels), Collections.unmodifiableList(modes),
+				Integer.getInteger("loadtest.warmup", 5),
+				Integer.getInteger("loadtest.duration", 30),
+				Integer.getInteger("loadtest.orders-per-session", 5),
+				Integer.getInteger("loadtest.items-per-order", 3),
+				System.getProperty("loadtest.target"),
+				System.getProperty("loadtest.report", "target/loadtest-report.csv"));
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One simulated shopper, repeated until stopped: sign up, log in, then place a few orders, each one browsing
+ * the catalog, adding some items to the cart and submitting.
+ */
+final class ShoppingSession implements Runnable {
+	static final String CREATE_USER = "POST /api/user/create";
+	static final String LOGIN = "POST /login";
+	static final String ITEMS = "GET /api/item";
+	static final String ADD_TO_CART = "POST /api/cart/addToCart";
+	static final String SUBMIT = "POST /api/order/submit";
+	// not an endpoint: sessions that broke on something other than a failed call, such as an unreadable response
+	static final String UNEXPECTED = "unexpected failure";
+
+	private static final AtomicLong USERS = new AtomicLong();
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final String baseUrl;
+	private final LoadTestOptions options;
+	private final EndpointStats stats;
+	private final AtomicBoolean running;
+	private final AtomicLong completedSessions;
+
+	ShoppingSession(String baseUrl, LoadTestOptions options, EndpointStats stats, AtomicBoolean running,
+					AtomicLong completedSessions) {
+		this.baseUrl = baseUrl;
+		this.options = options;
+		this.stats = stats;
+		this.running = running;
+		this.completedSessions = completedSessions;
+	}
+
+	@Override
+	public void run() {
+		while(running.get()) {
+			try {
+				if(shop()) {
+					completedSessions.incrementAndGet();
+				}
+			} catch (IOException e) {
+				// already recorded as an error against the endpoint that failed; start a new session
+			} catch (RuntimeException e) {
+				// count it and keep this shopper going, so the configured concurrency holds for the whole run
+				if(stats.fail(UNEXPECTED) == 1) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private boolean shop() throws IOException {
+		String username = "load-" + System.nanoTime() + "-" + USERS.incrementAndGet();
+		String password = "password-" + username;
+		String credentials = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"";
+		if(call(CREATE_USER, "POST", "/api/user/create", null, credentials + ",\"confirmPassword\":\"" + password + "\"}").status != 200) {
+			return false;
+		}
+		Response login = call(LOGIN, "POST", "/login", null, credentials + "}");
+		if(login.status != 200 || login.authorization == null) {
+			return false;
+		}
+		String token = login.authorization;
+		for(int order = 0; order < options.ordersPerSession && running.get(); order++) {
+			Response items = call(ITEMS, "GET", "/api/item", token, null);
+			if(items.status != 200) {
+				return false;
+			}
+			List<Long> itemIds = itemIds(items.body);
+			if(itemIds.isEmpty()) {
+				return false;
+			}
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for(int i = 0; i < options.itemsPerOrder; i++) {
+				long itemId = itemIds.get(random.nextInt(itemIds.size()));
+				call(ADD_TO_CART, "POST", "/api/cart/addToCart", token,
+						"{\"username\":\"" + username + "\",\"itemId\":" + itemId + ",\"quantity\":" + (1 + random.nextInt(3)) + "}");
+			}
+			call(SUBMIT, "POST", "/api/order/submit/" + username, token, null);
+		}
+		return true;
+	}
+
+	private Response call(String endpoint, String method, String path, String token, String json) throws IOException {
+		long start = System.nanoTime();
+		boolean ok = false;
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+			connection.setRequestMethod(method);
+			if(token != null) {
+				connection.setRequestProperty("Authorization", token);
+			}
+			if(json != null) {
+				connection.setDoOutput(true);
+				connection.setRequestProperty("Content-Type", "application/json");
+				try (OutputStream out = connection.getOutputStream()) {
+					out.write(json.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			int status = connection.getResponseCode();
+			byte[] body = readFully(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+			ok = status < 400;
+			return new Response(status, connection.getHeaderField("Authorization"), body);
+		} finally {
+			stats.record(endpoint, System.nanoTime() - start, ok);
+		}
+	}
+
+	private static List<Long> itemIds(byte[] body) throws IOException {
+		List<Long> ids = new ArrayList<>();
+		for(JsonNode item : MAPPER.readTree(body)) {
+			ids.add(item.get("id").asLong());
+		}
+		return ids;
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		if(in == null) {
+			return new byte[0];
+		}
+		try (InputStream stream = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while((read = stream.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private static final class Response {
+		final int status;
+		final String authorization;
+		final byte[] body;
+
+		Response(int status, String authorization, byte[] body) {
+			this.status = status;
+			this.authorization = authorization;
+			this.body = body;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.example.demo.loadtest;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Measures time to the first successful {@code GET /api/item}, from launching a fresh JVM until the catalog comes
+ * back, for each {@code startup.modes} entry: {@code default} (the persistent profile), {@code faststart} (which
+ * includes persistent) and either of them with {@code +cds} / {@code cds}, which also loads an AppCDS archive. One
+ * preparation run creates the file database, and when a CDS mode is selected a training run with the faststart
+ * profile dumps the archive ({@code startup.archive}) on exit, against exactly the classpath the measured runs use.
+ * {@code appcds.sh} does the same for the packaged war.
+ * Modes alternate within each round so drift on the machine spreads evenly. Results go to stdout and to CSV
+ * ({@code startup.report}).
+ */
+public final class StartupBenchmark {
+	private static final String MAIN_CLASS = "com.example.demo.MaggieApplication";
+	private static final AtomicLong USERS = new AtomicLong();
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		StartupOptions options = StartupOptions.fromSystemProperties();
+		if(options.usesArchive() && javaFeatureVersion() < 13) {
+			throw new IllegalStateException("the cds modes need Java 13 or later (-XX:ArchiveClassesAtExit), running on "
+					+ System.getProperty("java.specification.version"));
+		}
+		File workDir = new File(options.workDir).getAbsoluteFile();
+		File archive = new File(options.archive).getAbsoluteFile();
+		deleteRecursively(workDir.toPath());
+		workDir.mkdirs();
+
+		System.out.printf(Locale.ROOT, "prepared the database in %d ms%n", firstItems(workDir, "prepare", "persistent",
+				Collections.emptyList(), options));
+		if(options.usesArchive()) {
+			Files.deleteIfExists(archive.toPath());
+			long millis = firstItems(workDir, "train", "faststart",
+					Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive), options);
+			if(!archive.isFile()) {
+				throw new IllegalStateException("the training run did not write " + archive);
+			}
+			System.out.printf(Locale.ROOT, "trained %s (%d KB) in %d ms%n", archive, archive.length() / 1024, millis);
+		}
+
+		Map<String, List<Long>> results = new LinkedHashMap<>();
+		try (PrintWriter csv = csv(options.report)) {
+			for(int run = 1; run <= options.runs; run++) {
+				for(String mode : options.modes) {
+					List<String> jvmArgs = mode.endsWith("cds")
+							? Collections.singletonList("-XX:SharedArchiveFile=" + archive)
+							: Collections.<String>emptyList();
+					String profiles = mode.startsWith("faststart") ? "faststart" : "persistent";
+					long millis = firstItems(workDir, mode.replace('+', '-') + "-" + run, profiles, jvmArgs, options);
+					results.computeIfAbsent(mode, m -> new ArrayList<>()).add(millis);
+					System.out.printf(Locale.ROOT, "%-14s run %d: first /api/item after %d ms%n", mode, run, millis);
+					csv.printf(Locale.ROOT, "%s,%d,%d%n", mode, run, millis);
+					csv.flush();
+				}
+			}
+		}
+		report(results);
+	}
+
+	/**
+	 * Starts the application, signs up, logs in and fetches the catalog, then stops it again. Returns the
+	 * milliseconds from launching the JVM until the catalog came back.
+	 */
+	private static long firstItems(File workDir, String name, String profiles, List<String> extraJvmArgs, StartupOptions options)
+			throws IOException, InterruptedException {
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.addAll(options.jvmArgs);
+		command.addAll(extraJvmArgs);
+		command.add("-cp");
+		command.add(applicationClasspath());
+		command.add(MAIN_CLASS);
+		command.add("--server.port=" + port);
+		command.add("--spring.profiles.active=" + profiles);
+		command.add("--logging.file=app-" + name + ".log");
+		File console = new File(workDir, "console-" + name + ".log");
+		ProcessBuilder builder = new ProcessBuilder(command)
+				.directory(workDir)
+				.redirectErrorStream(true)
+				.redirectOutput(console);
+
+		long start = System.nanoTime();
+		Process process = builder.start();
+		try {
+			awaitItems(process, "http://localhost:" + port, start + TimeUnit.SECONDS.toNanos(options.timeoutSeconds), console);
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		} finally {
+			// SIGTERM, so shutdown hooks run (the CDS training run dumps its archive at exit)
+			process.destroy();
+			if(!process.waitFor(60, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		}
+	}
+
+	private static void awaitItems(Process process, String baseUrl, long deadline, File console) throws IOException, InterruptedException {
+		String username = "startup-" + USERS.incrementAndGet();
+		String credentials = "{\"username\":\"" + username + "\",\"password\":\"password-" + username + "\"";
+		while(true) {
+			if(!process.isAlive()) {
+				throw new IllegalStateException("the application exited with " + process.exitValue() + ", see " + console);
+			}
+			if(System.nanoTime() > deadline) {
+				throw new IllegalStateException("no catalog before the timeout, see " + console);
+			}
+			int created;
+			try {
+				created = post(baseUrl + "/api/user/create", credentials + ",\"confirmPassword\":\"password-" + username + "\"}").getResponseCode();
+			} catch (ConnectException e) {
+				// not listening yet
+				TimeUnit.MILLISECONDS.sleep(10);
+				continue;
+			}
+			if(created != 200) {
+				throw new IllegalStateException("user creation failed with " + created + ", see " + console);
+			}
+			HttpURLConnection login = post(baseUrl + "/login", credentials + "}");
+			String token = login.getHeaderField("Authorization");
+			if(login.getResponseCode() != 200 || token == null) {
+				throw new IllegalStateException("login failed with " + login.getResponseCode() + ", see " + console);
+			}
+			HttpURLConnection items = (HttpURLConnection) new URL(baseUrl + "/api/item").openConnection();
+			items.setRequestProperty("Authorization", token);
+			if(items.getResponseCode() != 200) {
+				throw new IllegalStateException("GET /api/item failed with " + items.getResponseCode() + ", see " + console);
+			}
+			items.getInputStream().close();
+			return;
+		}
+	}
+
+	private static HttpURLConnection post(String url, String json) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "application/json");
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+		return connection;
+	}
+
+	private static void report(Map<String, List<Long>> results) {
+		System.out.printf(Locale.ROOT, "%n%-14s %6s %9s %9s %9s%n", "mode", "runs", "min ms", "median ms", "max ms");
+		results.forEach((mode, millis) -> {
+			List<Long> sorted = new ArrayList<>(millis);
+			Collections.sort(sorted);
+			System.out.printf(Locale.ROOT, "%-14s %6d %9d %9d %9d%n", mode, sorted.size(), sorted.get(0),
+					sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1));
+		});
+	}
+
+	/**
+	 * This JVM's classpath without directories: the application and its libraries are all jars, and CDS refuses to
+	 * archive classes when a non-empty directory (such as this module's classes) is on the path.
+	 */
+	private static String applicationClasspath() {
+		StringJoiner classpath = new StringJoiner(File.pathSeparator);
+		for(String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if(new File(entry).isFile()) {
+				classpath.add(entry);
+			}
+		}
+		return classpath.toString();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static int javaFeatureVersion() {
+		String version = System.getProperty("java.specification.version");
+		return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+	}
+
+	private static void deleteRecursively(Path dir) throws IOException {
+		if(!Files.exists(dir)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(dir)) {
+			for(Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private static PrintWriter csv(String path) throws IOException {
+		File file = new File(path);
+		if(file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		PrintWriter csv = new PrintWriter(new FileWriter(file));
+		csv.println("mode,run,first_item_ms");
+		return csv;
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Startup benchmark settings, read from {@code startup.*} system properties.
+ */
+final class StartupOptions {
+	static final List<String> MODES = Collections.unmodifiableList(Arrays.asList("default", "cds", "faststart", "faststart+cds"));
+
+	final List<String> modes;
+	final int runs;
+	final int timeoutSeconds;
+	final List<String> jvmArgs;
+	final String workDir;
+	final String archive;
+	final String report;
+
+	private StartupOptions(List<String> modes, int runs, int timeoutSeconds, List<String> jvmArgs, String workDir, String archive,
+						   String report) {
+		this.modes = modes;
+		this.runs = runs;
+		this.timeoutSeconds = timeoutSeconds;
+		this.jvmArgs = jvmArgs;
+		this.workDir = workDir;
+		this.archive = archive;
+		this.report = report;
+	}
+
+	boolean usesArchive() {
+		return modes.stream().anyMatch(mode -> mode.endsWith("cds"));
+	}
+
+	static StartupOptions fromSystemProperties() {
+		List<String> modes = new ArrayList<>();
+		for(String mode : System.getProperty("startup.modes", "default,faststart,faststart+cds").split(",")) {
+			mode = mode.trim();
+			if(!MODES.contains(mode)) {
+				throw new IllegalArgumentException("startup.modes takes " + MODES + ", not " + mode);
+			}
+			modes.add(mode);
+		}
+		List<String> jvmArgs = new ArrayList<>();
+		for(String arg : System.getProperty("startup.jvm-args", "").split(" ")) {
+			if(!arg.trim().isEmpty()) {
+				jvmArgs.add(arg.trim());
+			}
+		}
+		return new StartupOptions(Collections.unmodifiableList(modes),
+				Integer.getInteger("startup.runs", 5),
+				Integer.getInteger("startup.timeout", 180),
+				Collections.unmodifiableList(jvmArgs),
+				System.getProperty("startup.work-dir", "target/startup"),
+				System.getProperty("startup.archive", "target/app-cds.jsa"),
+				System.getProperty("startup.report", "target/startup-report.csv"));
+	}
+}
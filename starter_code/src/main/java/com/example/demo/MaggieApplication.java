@@ -1,25 +1,42 @@
 package com.example.demo;
 
+import com.example.demo.security.BoundedBCryptPasswordEncoder;
+import com.example.demo.security.PasswordHashingPool;
+import com.example.demo.service.CatalogImportRunner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
-@EnableJpaRepositories("com.example.demo.model.persistence.repositories")
+// repositories come from Boot's auto-configuration (they live under this package), so
+// spring.data.jpa.repositories.bootstrap-mode applies to them
 @EntityScan("com.example.demo.model.persistence")
 @SpringBootApplication(exclude = {SecurityAutoConfiguration.class})
 public class MaggieApplication {
 
 	@Bean
-	public BCryptPasswordEncoder bCryptPasswordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BCryptPasswordEncoder bCryptPasswordEncoder(
+			@Value("${security.bcrypt.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+			@Value("${security.bcrypt.queue-capacity}") int queueCapacity,
+			@Value("${security.bcrypt.retry-after-seconds}") long retryAfterSeconds,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		return new BoundedBCryptPasswordEncoder(new PasswordHashingPool(threads, queueCapacity, retryAfterSeconds,
+				meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
 	}
 
 	public static void main(String[] args) {
-		SpringApplication.run(MaggieApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(MaggieApplication.class, args);
+		// an import run is finished once startup returns; only the launcher exits, never code inside the context
+		if(context.getBeanNamesForType(CatalogImportRunner.class).length > 0) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,70 @@
+package com.example.demo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in ({@code spring.threads.virtual.enabled=true}) mode that hands Tomcat an executor starting one virtual
+ * thread per request instead of its fixed worker pool. The code is still built for Java 8, so the virtual thread
+ * API is looked up reflectively; on a JDK without it (before 21) startup fails rather than silently keeping the
+ * worker pool.
+ * <p>
+ * Needs the Tomcat the pom pins ({@code tomcat.version}). Boot 2.1's own 9.0.19 processes each request inside a
+ * {@code synchronized} block on its socket wrapper, so a request waiting on a Hikari connection pins its carrier;
+ * once every carrier is pinned, the requests holding connections cannot be scheduled to return them and
+ * acquisition stalls until the pool's connection timeout. Later 9.0 releases guard the socket with a lock
+ * instead. {@code -Djdk.tracePinnedThreads=full} prints any frames that still pin.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig implements DisposableBean {
+	// not a bean: an Executor bean would replace Boot's applicationTaskExecutor
+	private final ExecutorService requestExecutor = newVirtualThreadPerTaskExecutor("http-vt-");
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+		TomcatConnectorCustomizer customizer = connector -> connector.getProtocolHandler().setExecutor(requestExecutor);
+		return factory -> {
+			factory.addConnectorCustomizers(customizer);
+			log.info("serving requests on virtual threads");
+		};
+	}
+
+	@Override
+	public void destroy() {
+		// Tomcat only shuts down executors it created itself
+		requestExecutor.shutdown();
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) perTask.invoke(null, factory);
+		} catch (NoSuchMethodException | ClassNotFoundException e) {
+			throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 or later, running on "
+					+ System.getProperty("java.version"), e);
+		} catch (InvocationTargetException e) {
+			// Java 19 and 20 have the methods but throw unless started with --enable-preview
+			throw new IllegalStateException("virtual threads are not available on this JVM", e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("virtual threads are not available on this JVM", e);
+		}
+	}
+}
@@ -1,14 +1,20 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartItem;
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartItemRepository;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.service.CartWriter;
+import com.example.demo.service.UserKey;
+import com.example.demo.service.UserLookupCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,55 +22,133 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
 @Slf4j
 public class CartController {
+	private static final int MAX_BATCH_OPERATIONS = 500;
 	
-	private final UserRepository userRepository;
+	private final UserLookupCache userLookupCache;
 	private final CartRepository cartRepository;
 	private final ItemRepository itemRepository;
+	private final CartItemRepository cartItemRepository;
+	private final CartWriter cartWriter;
 	
 	@PostMapping("/addToCart")
 	public ResponseEntity<Cart> addToCart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			log.error("user " + request.getUsername() + " not found");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
-			log.error("item with ID " + request.getItemId() + " not found");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.addItem(item.get()));
-		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
+		return updateCart(request.getUsername(), cart -> {
+			Optional<Item> item = itemRepository.findById(request.getItemId());
+			if(!item.isPresent()) {
+				log.error("item with ID {} not found", request.getItemId());
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			saveChangedLine(cart, cart.addItem(item.get(), request.getQuantity()));
+			return ResponseEntity.ok(cart);
+		});
 	}
 	
 	@PostMapping("/removeFromCart")
 	public ResponseEntity<Cart> removeFromCart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			log.error("user " + request.getUsername() + " not found");
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		return updateCart(request.getUsername(), cart -> {
+			Optional<Item> item = itemRepository.findById(request.getItemId());
+			if(!item.isPresent()) {
+				log.error("item with ID {} not found", request.getItemId());
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			saveChangedLine(cart, cart.removeItem(item.get(), request.getQuantity()));
+			return ResponseEntity.ok(cart);
+		});
+	}
+
+	/**
+	 * Applies every operation to the cart or none of them: all items are resolved with one query up front,
+	 * the cart is changed in memory and the touched lines are written in a single transaction.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<Cart> modifyCart(@RequestBody BatchCartRequest request) {
+		List<CartOperation> operations = request.getOperations();
+		if(operations == null || operations.isEmpty() || operations.size() > MAX_BATCH_OPERATIONS) {
+			log.error("batch for {} must hold between 1 and {} operations", request.getUsername(), MAX_BATCH_OPERATIONS);
+			return ResponseEntity.badRequest().build();
 		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
-			log.error("item with ID " + request.getItemId() + " not found");
+		return updateCart(request.getUsername(), cart -> {
+			Set<Long> itemIds = operations.stream().map(CartOperation::getItemId).collect(Collectors.toSet());
+			Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+					.collect(Collectors.toMap(Item::getId, Function.identity()));
+			if(items.size() != itemIds.size()) {
+				itemIds.removeAll(items.keySet());
+				log.error("items with IDs {} not found", itemIds);
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			}
+			Map<Long, CartItem> changed = new LinkedHashMap<>();
+			for(CartOperation operation : operations) {
+				Item item = items.get(operation.getItemId());
+				CartItem line = operation.getQuantity() >= 0
+						? cart.addItem(item, operation.getQuantity())
+						: cart.removeItem(item, -operation.getQuantity());
+				if(line != null) {
+					changed.put(item.getId(), line);
+				}
+			}
+			saveChangedLines(cart, changed.values());
+			return ResponseEntity.ok(cart);
+		});
+	}
+
+	/**
+	 * Loads the user's cart and applies {@code update} to it inside {@link CartWriter#write}, so the read and the
+	 * write happen under the user's lock and are repeated from a fresh read if the cart version moved.
+	 */
+	private ResponseEntity<Cart> updateCart(String username, Function<Cart, ResponseEntity<Cart>> update) {
+		Optional<UserKey> user = userLookupCache.find(username);
+		if(!user.isPresent() || user.get().getCartId() == null) {
+			log.error("user {} not found", username);
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.removeItem(item.get()));
+		try {
+			return cartWriter.write(user.get().getUserId(), () -> cartRepository.findById(user.get().getCartId())
+					.map(update)
+					.orElseGet(() -> {
+						log.error("cart of user {} not found", username);
+						return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+					}));
+		} catch (OptimisticLockingFailureException e) {
+			log.warn("cart of user {} kept changing concurrently, giving up", username);
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+	}
+
+	/**
+	 * Writes only the line touched by a mutation plus the cart row holding the total,
+	 * so the cost of a save does not grow with the number of lines already in the cart.
+	 */
+	private void saveChangedLine(Cart cart, CartItem line) {
+		saveChangedLines(cart, line == null ? Collections.emptyList() : Collections.singletonList(line));
+	}
+
+	private void saveChangedLines(Cart cart, Collection<CartItem> lines) {
+		if(lines.isEmpty()) {
+			return;
+		}
+		for(CartItem line : lines) {
+			if(line.getQuantity() > 0) {
+				cartItemRepository.save(line);
+			} else if(line.getId() != null) {
+				cartItemRepository.delete(line);
+			}
+		}
 		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
 	}
 		
 }
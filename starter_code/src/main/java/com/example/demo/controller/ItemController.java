@@ -2,12 +2,22 @@ package com.example.demo.controller;
 
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.service.CatalogExporter;
+import com.example.demo.service.CatalogSnapshot;
+import com.example.demo.service.ItemSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,11 +25,57 @@ import java.util.List;
 @RequestMapping("/api/item")
 @RequiredArgsConstructor
 public class ItemController {
+	public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int MAX_SEARCH_LIMIT = 100;
+
 	private final ItemRepository itemRepository;
+	private final CatalogSnapshot catalogSnapshot;
+	private final CatalogExporter catalogExporter;
+	private final ItemSearchIndex itemSearchIndex;
 	
 	@GetMapping
-	public ResponseEntity<List<Item>> getItems() {
-		return ResponseEntity.ok(itemRepository.findAll());
+	public ResponseEntity<byte[]> getItems(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		CatalogSnapshot.Snapshot snapshot = catalogSnapshot.get();
+		boolean gzip = snapshot.getGzip() != null && acceptsGzip(acceptEncoding);
+		String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+		if(matches(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+		}
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.eTag(etag)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if(gzip) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+		}
+		return response.body(snapshot.getJson());
+	}
+	
+	@GetMapping("/page")
+	public ResponseEntity<List<Item>> getItemPage(@RequestParam(defaultValue = "0") long after,
+			@RequestParam(defaultValue = "50") int size) {
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize));
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if(items.size() == pageSize) {
+			response.header(PagingHeaders.NEXT_CURSOR, String.valueOf(items.get(items.size() - 1).getId()));
+		}
+		return response.body(items);
+	}
+
+	@GetMapping("/stream")
+	public ResponseEntity<StreamingResponseBody> streamItems() {
+		return ResponseEntity.ok()
+				.contentType(APPLICATION_NDJSON)
+				.body(catalogExporter::writeNdjson);
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<List<Item>> searchItems(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit) {
+		return ResponseEntity.ok(itemSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT))));
 	}
 	
 	@GetMapping("/{id}")
@@ -34,5 +90,54 @@ public class ItemController {
 				: ResponseEntity.ok(items);
 			
 	}
+
+	/**
+	 * Whether gzip is acceptable: listed, or covered by {@code *} when not listed, with a q-value above zero
+	 * ({@code gzip;q=0} is a refusal).
+	 */
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if(acceptEncoding == null) {
+			return false;
+		}
+		double wildcard = 0;
+		for(String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			if(name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+				return quality(parts) > 0;
+			}
+			if(name.equals("*")) {
+				wildcard = quality(parts);
+			}
+		}
+		return wildcard > 0;
+	}
+
+	private static double quality(String[] parts) {
+		for(int i = 1; i < parts.length; i++) {
+			String param = parts[i].trim();
+			if(param.length() > 2 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+				try {
+					return Double.parseDouble(param.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if(ifNoneMatch == null) {
+			return false;
+		}
+		for(String candidate : ifNoneMatch.split(",")) {
+			String trimmed = candidate.trim();
+			if(trimmed.equals("*") || trimmed.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
 	
 }
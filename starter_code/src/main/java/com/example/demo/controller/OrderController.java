@@ -1,46 +1,103 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.OrderRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.persistence.repositories.OrderSummary;
+import com.example.demo.service.OrderSubmissionPipeline;
+import com.example.demo.service.UserKey;
+import com.example.demo.service.UserLookupCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/order")
 @RequiredArgsConstructor
 @Slf4j
 public class OrderController {
+	private static final int MAX_PAGE_SIZE = 100;
 	
-	private final UserRepository userRepository;
+	private final UserLookupCache userLookupCache;
+	private final CartRepository cartRepository;
 	private final OrderRepository orderRepository;
+	private final OrderSubmissionPipeline orderSubmissionPipeline;
 
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
-		if(user == null) {
-			log.error("user " + username + " not found");
-			return ResponseEntity.notFound().build();
+	public CompletableFuture<ResponseEntity<UserOrder>> submit(@PathVariable String username) {
+		Optional<Cart> cart = userLookupCache.find(username)
+				.map(UserKey::getCartId)
+				.flatMap(cartRepository::findById);
+		if(!cart.isPresent()) {
+			log.error("user {} not found", username);
+			return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+		}
+		try {
+			return orderSubmissionPipeline.submit(UserOrder.createFromCart(cart.get()))
+					.thenApply(order -> {
+						log.info("order for {} submitted successfully", username);
+						return ResponseEntity.ok(order);
+					});
+		} catch (RejectedExecutionException e) {
+			log.warn("order for {} rejected: {}", username, e.getMessage());
+			return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(orderSubmissionPipeline.getRetryAfterSeconds()))
+					.build());
 		}
-		UserOrder order = UserOrder.createFromCart(user.getCart());
-		orderRepository.save(order);
-		log.info("order for " + username + " submitted successfully");
-		return ResponseEntity.ok(order);
 	}
 	
 	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
-		if(user == null) {
-			log.error("user " + username + " not found");
+	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username,
+			@RequestParam(defaultValue = "" + Long.MAX_VALUE) long before,
+			@RequestParam(defaultValue = "20") int size) {
+		Optional<UserKey> user = userLookupCache.find(username);
+		if(!user.isPresent()) {
+			log.error("user {} not found", username);
+			return ResponseEntity.notFound().build();
+		}
+		int pageSize = pageSize(size);
+		List<Long> ids = orderRepository.findIdsByUserIdBefore(user.get().getUserId(), before, PageRequest.of(0, pageSize));
+		List<UserOrder> orders = ids.isEmpty() ? Collections.emptyList() : orderRepository.findWithItemsByIdIn(ids);
+		log.info("order retrieved for {} successfully", username);
+		return page(ids, pageSize).body(orders);
+	}
+
+	@GetMapping("/history/{username}/summary")
+	public ResponseEntity<List<OrderSummary>> getOrderSummariesForUser(@PathVariable String username,
+			@RequestParam(defaultValue = "" + Long.MAX_VALUE) long before,
+			@RequestParam(defaultValue = "20") int size) {
+		Optional<UserKey> user = userLookupCache.find(username);
+		if(!user.isPresent()) {
+			log.error("user {} not found", username);
 			return ResponseEntity.notFound().build();
 		}
-		log.info("order retrieved for " + username + " successfully");
-		return ResponseEntity.ok(orderRepository.findByUser(user));
+		int pageSize = pageSize(size);
+		List<OrderSummary> summaries = orderRepository.findSummariesByUserIdBefore(user.get().getUserId(), before, PageRequest.of(0, pageSize));
+		List<Long> ids = summaries.stream().map(OrderSummary::getId).collect(Collectors.toList());
+		return page(ids, pageSize).body(summaries);
+	}
+
+	private static int pageSize(int size) {
+		return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+	}
+
+	private static ResponseEntity.BodyBuilder page(List<Long> ids, int pageSize) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if(ids.size() == pageSize) {
+			response.header(PagingHeaders.NEXT_CURSOR, String.valueOf(ids.get(ids.size() - 1)));
+		}
+		return response;
 	}
 }
@@ -0,0 +1,12 @@
+package com.example.demo.controller;
+
+/**
+ * Response headers of the cursor-paged listings.
+ */
+public final class PagingHeaders {
+	/** Cursor for the next page, sent only when the page came back full. */
+	public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+	private PagingHeaders() {
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.demo.controller;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.SecurityConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/token")
+@RequiredArgsConstructor
+@Slf4j
+public class TokenController {
+
+	private final JwtTokenProvider jwtTokenProvider;
+
+	@PostMapping("/refresh")
+	public ResponseEntity<Void> refresh(@RequestHeader(SecurityConstants.REFRESH_HEADER_STRING) String refreshToken) {
+		DecodedJWT jwt;
+		try {
+			jwt = jwtTokenProvider.verifyRefreshToken(refreshToken);
+		} catch (JWTVerificationException e) {
+			log.error("refresh token rejected: {}", e.getMessage());
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		return ResponseEntity.ok()
+				.header(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + jwtTokenProvider.createAccessToken(jwt.getSubject()))
+				.build();
+	}
+}
@@ -5,8 +5,12 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.service.UserLookupCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 	
 	private final UserRepository userRepository;
+	private final UserLookupCache userLookupCache;
 	private final CartRepository cartRepository;
 	private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
@@ -28,8 +33,8 @@ public class UserController {
 	
 	@GetMapping("/{username}")
 	public ResponseEntity<User> findByUserName(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
-		return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+		return ResponseEntity.of(userLookupCache.find(username)
+				.flatMap(key -> userRepository.findById(key.getUserId())));
 	}
 	
 	@PostMapping("/create")
@@ -42,9 +47,17 @@ public class UserController {
 			log.error("user was not created due to password length or password mismatch");
 			return ResponseEntity.badRequest().build();
 		}
-		user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
+		try {
+			user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
+		} catch (PasswordHashingRejectedException e) {
+			log.warn("user {} was not created because password hashing is at capacity", createUserRequest.getUsername());
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+					.build();
+		}
 		userRepository.save(user);
-		log.info("user " + createUserRequest.getUsername() +" has been created successfully");
+		userLookupCache.invalidate(user.getUsername());
+		log.info("user {} has been created successfully", createUserRequest.getUsername());
 		return ResponseEntity.ok(user);
 	}
 	
@@ -0,0 +1,71 @@
+package com.example.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.StringUtils;
+
+/**
+ * Two Hikari pools behind one routing DataSource: read-only transactions (every plain Spring Data repository
+ * read) use the {@code read} pool and everything else the {@code write} pool, so a burst of catalog or history
+ * reads queues on its own pool instead of starving cart and order writes. {@code datasource.read.url} points the
+ * read pool at a replica; left empty, the read pool opens its own connections to the primary database.
+ * <p>
+ * The pools are deliberately not beans: Boot runs its schema/data initializer after every DataSource bean, which
+ * would need this one while it is still being built. Their settings are bound from
+ * {@code spring.datasource.hikari.*} and {@code datasource.read.hikari.*}, and both export {@code hikaricp.*}
+ * metrics tagged with their pool name.
+ */
+@Configuration
+public class DataSourceConfig {
+
+	@Bean
+	public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+												 ObjectProvider<MeterRegistry> meterRegistry) {
+		Binder binder = Binder.get(environment);
+		HikariDataSource write = pool(properties, binder, "spring.datasource.hikari", meterRegistry);
+		HikariDataSource read = pool(properties, binder, "datasource.read.hikari", meterRegistry);
+		String readUrl = environment.getProperty("datasource.read.url");
+		if(StringUtils.hasText(readUrl)) {
+			read.setJdbcUrl(readUrl);
+		}
+		return new ReadWriteRoutingDataSource(write, read);
+	}
+
+	/**
+	 * Hibernate releases the connection after each transaction ({@code hibernate.connection.handling_mode}), so the
+	 * one the JPA dialect would reset at commit is not the one it prepared; it logs a warning and skips the reset.
+	 * Routing needs no preparation, the read pool hands out read-only connections already. Without it the dialect
+	 * rejects a non-default isolation level with {@code InvalidIsolationLevelException} rather than ignoring it, and
+	 * still puts read-only transactions in {@code MANUAL} flush mode.
+	 */
+	@Bean
+	public static BeanPostProcessor unpreparedJpaConnections() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if(bean instanceof HibernateJpaVendorAdapter) {
+					((HibernateJpaVendorAdapter) bean).setPrepareConnection(false);
+				}
+				return bean;
+			}
+		};
+	}
+
+	private static HikariDataSource pool(DataSourceProperties properties, Binder binder, String prefix,
+										 ObjectProvider<MeterRegistry> meterRegistry) {
+		HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		binder.bind(prefix, Bindable.ofInstance(pool));
+		meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+		return pool;
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections for {@code readOnly} transactions to the read pool and everything else to the write pool.
+ * The read-only flag is only set once the transaction has begun, after the transaction manager asked for a
+ * connection, so the pool is picked lazily on the first statement. Owns both pools and closes them with itself.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+	public enum Route {
+		READ, WRITE
+	}
+
+	private final HikariDataSource write;
+	private final HikariDataSource read;
+
+	public ReadWriteRoutingDataSource(HikariDataSource write, HikariDataSource read) {
+		super(new Router(write, read));
+		this.write = write;
+		this.read = read;
+	}
+
+	@Override
+	public void close() {
+		read.close();
+		write.close();
+	}
+
+	private static class Router extends AbstractRoutingDataSource {
+
+		Router(HikariDataSource write, HikariDataSource read) {
+			Map<Object, Object> targets = new HashMap<>();
+			targets.put(Route.WRITE, write);
+			targets.put(Route.READ, read);
+			setTargetDataSources(targets);
+			setDefaultTargetDataSource(write);
+			afterPropertiesSet();
+		}
+
+		@Override
+		protected Object determineCurrentLookupKey() {
+			return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports the dropped-event count and free queue slots of every {@link CountingAsyncAppender} on the root logger.
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+		if(!(factory instanceof LoggerContext)) {
+			return;
+		}
+		Logger root = ((LoggerContext) factory).getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+		root.iteratorForAppenders().forEachRemaining(appender -> {
+			if(appender instanceof CountingAsyncAppender) {
+				CountingAsyncAppender async = (CountingAsyncAppender) appender;
+				FunctionCounter.builder("logging.events.dropped", async, CountingAsyncAppender::getDroppedCount)
+						.description("Log events dropped by the async appender instead of blocking the caller")
+						.tag("appender", async.getName())
+						.register(registry);
+				Gauge.builder("logging.queue.remaining", async, CountingAsyncAppender::getRemainingCapacity)
+						.description("Free slots in the async appender queue")
+						.tag("appender", async.getName())
+						.register(registry);
+			}
+		});
+	}
+}
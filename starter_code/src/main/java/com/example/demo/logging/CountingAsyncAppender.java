@@ -0,0 +1,37 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it throws away, either because the queue was past its
+ * discarding threshold or, with {@code neverBlock}, because the queue was full.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+	private final LongAdder dropped = new LongAdder();
+
+	@Override
+	protected void append(ILoggingEvent event) {
+		// AsyncAppenderBase offers to a full queue silently when neverBlock is set, so count that case up front
+		if(isStarted() && isNeverBlock() && getRemainingCapacity() == 0) {
+			dropped.increment();
+			return;
+		}
+		super.append(event);
+	}
+
+	@Override
+	protected boolean isDiscardable(ILoggingEvent event) {
+		boolean discardable = super.isDiscardable(event);
+		if(discardable) {
+			dropped.increment();
+		}
+		return discardable;
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+}
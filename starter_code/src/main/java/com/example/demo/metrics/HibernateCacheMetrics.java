@@ -0,0 +1,67 @@
+package com.example.demo.metrics;
+
+import com.example.demo.model.persistence.Item;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exports Hibernate's {@link CacheRegionStatistics} for the {@code item} and {@code item-by-name} regions, which
+ * Micrometer's Hibernate binder only reports summed over all regions: hit and miss counts as
+ * {@code hibernate.cache.region.requests{region,result}}, hits over lookups as {@code hibernate.cache.region.hit.ratio},
+ * and the in-memory element count as {@code hibernate.cache.region.size}. Bound in the constructor, not as a
+ * MeterBinder, because the registry exists before the EntityManagerFactory does.
+ */
+@Component
+public class HibernateCacheMetrics {
+	static final List<String> REGIONS = Arrays.asList(Item.CACHE_REGION, Item.BY_NAME_CACHE_REGION);
+
+	private final Statistics statistics;
+
+	public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry registry) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		bindTo(registry);
+	}
+
+	private void bindTo(MeterRegistry registry) {
+		for(String region : REGIONS) {
+			FunctionCounter.builder("hibernate.cache.region.requests", statistics, stats -> count(region, CacheRegionStatistics::getHitCount))
+					.description("Second-level cache lookups in the region")
+					.tags("region", region, "result", "hit")
+					.register(registry);
+			FunctionCounter.builder("hibernate.cache.region.requests", statistics, stats -> count(region, CacheRegionStatistics::getMissCount))
+					.description("Second-level cache lookups in the region")
+					.tags("region", region, "result", "miss")
+					.register(registry);
+			Gauge.builder("hibernate.cache.region.hit.ratio", statistics, stats -> hitRatio(region))
+					.description("Share of second-level cache lookups in the region that were hits")
+					.tag("region", region)
+					.register(registry);
+			Gauge.builder("hibernate.cache.region.size", statistics, stats -> count(region, CacheRegionStatistics::getElementCountInMemory))
+					.description("Entries held in the region, when the cache provider reports it")
+					.tag("region", region)
+					.register(registry);
+		}
+	}
+
+	private double hitRatio(String region) {
+		long hits = count(region, CacheRegionStatistics::getHitCount);
+		long lookups = hits + count(region, CacheRegionStatistics::getMissCount);
+		return lookups == 0 ? Double.NaN : (double) hits / lookups;
+	}
+
+	private long count(String region, ToLongFunction<CacheRegionStatistics> value) {
+		// query regions are only created on first use
+		CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+		return regionStatistics == null ? 0 : Math.max(0, value.applyAsLong(regionStatistics));
+	}
+}
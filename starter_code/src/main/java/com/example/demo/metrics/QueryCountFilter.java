@@ -0,0 +1,57 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Records how many SQL statements each request issued on its thread as {@code http.server.requests.queries},
+ * tagged like {@code http.server.requests} with the method and the matched URI pattern.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+	// paths answered by the security filters, which never reach a handler
+	private static final Set<String> FILTER_PATHS = Collections.singleton("/login");
+
+	private final MeterRegistry meterRegistry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		QueryCountInspector.reset();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			DistributionSummary.builder("http.server.requests.queries")
+					.description("SQL statements issued while handling a request")
+					.tag("method", request.getMethod())
+					.tag("uri", uri(request))
+					.register(meterRegistry)
+					.record(QueryCountInspector.current());
+		}
+	}
+
+	private static String uri(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if(pattern != null) {
+			return pattern.toString();
+		}
+		// anything else would let clients mint a new series per path they make up
+		return FILTER_PATHS.contains(request.getServletPath()) ? request.getServletPath() : "UNKNOWN";
+	}
+}
@@ -1,15 +1,22 @@
 package com.example.demo.model.persistence;
 
+import com.example.demo.model.pricing.MinorUnitsConverter;
+import com.example.demo.model.pricing.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "cart")
@@ -25,38 +32,122 @@ public class Cart {
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<CartItem> items;
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
     private User user;
 	
-	@Column
-	@JsonProperty
-	private BigDecimal total;
+	@Column(name = "total")
+	@Convert(converter = MinorUnitsConverter.class)
+	@JsonIgnore
+	private long totalMinorUnits;
+
+	@Version
+	@JsonIgnore
+	private Long version;
+
+	// item id -> line, rebuilt from items whenever the two disagree, so finding a line does not scan the cart
+	@Transient
+	@JsonIgnore
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private Map<Long, CartItem> linesByItemId;
 	
-	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+	public CartItem addItem(Item item) {
+		return addItem(item, 1);
+	}
+
+	public CartItem addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return null;
 		}
-		items.add(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		CartItem line = findLine(item);
+		if(line == null) {
+			line = CartItem.builder().cart(this).item(item).unitPriceMinorUnits(Money.toMinorUnits(item.getPrice())).build();
+			items.add(line);
+			if(item.getId() != null) {
+				linesByItemId.put(item.getId(), line);
+			}
 		}
-		total = total.add(item.getPrice());
+		line.setQuantity(Math.addExact(line.getQuantity(), quantity));
+		totalMinorUnits = Money.plus(totalMinorUnits, Money.times(line.getUnitPriceMinorUnits(), quantity));
+		return line;
 	}
-	
-	public void removeItem(Item item) {
+
+	public CartItem removeItem(Item item) {
+		return removeItem(item, 1);
+	}
+
+	public CartItem removeItem(Item item, int quantity) {
+		CartItem line = findLine(item);
+		if(line == null || quantity <= 0) {
+			return null;
+		}
+		int removed = Math.min(quantity, line.getQuantity());
+		line.setQuantity(line.getQuantity() - removed);
+		if(line.getQuantity() == 0) {
+			removeLine(line);
+		}
+		totalMinorUnits = Money.minus(totalMinorUnits, Money.times(line.getUnitPriceMinorUnits(), removed));
+		return line;
+	}
+
+	@JsonProperty
+	public BigDecimal getTotal() {
+		return Money.toDecimal(totalMinorUnits);
+	}
+
+	/**
+	 * Sums the lines from their unit prices and quantities, in minor units and without allocating.
+	 */
+	public long linesTotalMinorUnits() {
+		long sum = 0;
+		if(items != null) {
+			for(int i = 0; i < items.size(); i++) {
+				sum = Money.plus(sum, items.get(i).lineTotalMinorUnits());
+			}
+		}
+		return sum;
+	}
+
+	public void setItems(List<CartItem> items) {
+		this.items = items;
+		linesByItemId = null;
+	}
+
+	private CartItem findLine(Item item) {
 		if(items == null) {
 			items = new ArrayList<>();
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		if(linesByItemId == null || linesByItemId.size() != items.size()) {
+			linesByItemId = new HashMap<>();
+			for(CartItem line : items) {
+				linesByItemId.put(line.getItem().getId(), line);
+			}
+		}
+		if(item.getId() != null) {
+			return linesByItemId.get(item.getId());
+		}
+		// items not saved yet have no id to index by
+		for(CartItem line : items) {
+			if(line.getItem().equals(item)) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	private void removeLine(CartItem line) {
+		linesByItemId.remove(line.getItem().getId());
+		// lines are appended, so the one being emptied is most often near the end
+		for(int i = items.size() - 1; i >= 0; i--) {
+			if(items.get(i) == line) {
+				items.remove(i);
+				return;
+			}
 		}
-		total = total.subtract(item.getPrice());
 	}
 }
@@ -0,0 +1,64 @@
+package com.example.demo.model.persistence;
+
+import com.example.demo.model.pricing.MinorUnitsConverter;
+import com.example.demo.model.pricing.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "cart_item")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CartItem {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@JsonProperty
+	@Column
+	private Long id;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "cart_id", nullable = false, referencedColumnName = "id")
+	@JsonIgnore
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private Cart cart;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "item_id", nullable = false, referencedColumnName = "id")
+	@JsonProperty
+	private Item item;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	@Column(name = "unit_price", nullable = false)
+	@Convert(converter = MinorUnitsConverter.class)
+	@JsonIgnore
+	private long unitPriceMinorUnits;
+
+	@Version
+	@JsonIgnore
+	private Long version;
+
+	@JsonProperty
+	public BigDecimal getUnitPrice() {
+		return Money.toDecimal(unitPriceMinorUnits);
+	}
+
+	public long lineTotalMinorUnits() {
+		return Money.times(unitPriceMinorUnits, quantity);
+	}
+}
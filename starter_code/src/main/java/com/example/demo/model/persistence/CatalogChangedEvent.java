@@ -0,0 +1,12 @@
+package com.example.demo.model.persistence;
+
+import lombok.Value;
+
+/**
+ * Published once after a bulk write of {@link Item}s that published no {@link ItemChangedEvent} per item, such as
+ * a catalog import. Whatever is derived from the whole catalog has to be re-read.
+ */
+@Value
+public class CatalogChangedEvent {
+	long itemsWritten;
+}
@@ -0,0 +1,30 @@
+package com.example.demo.model.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Single row counting changes to the catalog. {@link CatalogRevisionListener} moves it in every transaction that
+ * writes an {@link Item}, and data.sql when it seeds one, so reading it is one primary key lookup however large
+ * the item table is.
+ */
+@Entity
+@Table(name = "catalog_revision")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CatalogRevision {
+	public static final long ID = 1;
+
+	@Id
+	private Long id;
+
+	@Column(nullable = false)
+	private long revision;
+}
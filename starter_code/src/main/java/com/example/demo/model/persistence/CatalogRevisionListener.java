@@ -0,0 +1,86 @@
+package com.example.demo.model.persistence;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves the {@link CatalogRevision} with the first {@link Item} a transaction inserts, updates or deletes, on the
+ * same connection, so the revision commits or rolls back together with the items. Later item writes in that
+ * transaction leave it alone, which keeps a catalog import at one extra statement per batch. A Hibernate listener
+ * rather than a JPA callback because it needs the session; registered as an {@link Integrator} through
+ * META-INF/services. Bulk JPQL or native statements on the item table bypass it and move the revision themselves.
+ */
+public class CatalogRevisionListener implements Integrator, PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+	// sessions whose current transaction has already moved the revision
+	private final Set<EventSource> moved = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+		listeners.appendListeners(EventType.POST_INSERT, this);
+		listeners.appendListeners(EventType.POST_UPDATE, this);
+		listeners.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		written(event.getEntity(), event.getSession());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		written(event.getEntity(), event.getSession());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		written(event.getEntity(), event.getSession());
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return false;
+	}
+
+	private void written(Object entity, EventSource session) {
+		if(!(entity instanceof Item) || !moved.add(session)) {
+			return;
+		}
+		session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> moved.remove(session));
+		// plain JDBC: a native query through the session would evict every second-level cache region
+		session.doWork(connection -> {
+			try (PreparedStatement update = connection.prepareStatement("update catalog_revision set revision = revision + 1 where id = ?")) {
+				update.setLong(1, CatalogRevision.ID);
+				if(update.executeUpdate() > 0) {
+					return;
+				}
+			}
+			try (PreparedStatement insert = connection.prepareStatement("insert into catalog_revision (id, revision) values (?, 1)")) {
+				insert.setLong(1, CatalogRevision.ID);
+				insert.executeUpdate();
+			}
+		});
+	}
+}
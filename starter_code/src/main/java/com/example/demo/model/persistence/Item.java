@@ -5,20 +5,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "item")
+@EntityListeners(ItemChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Item.CACHE_REGION)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 public class Item {
+	public static final String CACHE_REGION = "item";
+	public static final String BY_NAME_CACHE_REGION = "item-by-name";
 
+	// ids below the sequence's initial value are left for the rows in data.sql
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+	@SequenceGenerator(name = "item_seq", sequenceName = "item_seq", initialValue = 100, allocationSize = 50)
 	@JsonProperty
 	private Long id;
 	
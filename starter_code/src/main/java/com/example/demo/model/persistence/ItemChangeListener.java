@@ -0,0 +1,56 @@
+package com.example.demo.model.persistence;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.function.Supplier;
+
+/**
+ * JPA entity listener that turns {@link Item} writes into {@link ItemChangedEvent}s. Hibernate obtains it from
+ * the Spring bean factory. The publisher arrives through the Aware callback rather than constructor injection:
+ * with deferred repository bootstrap Hibernate creates the listener on a background thread, and resolving a
+ * constructor argument there would wait on the bean factory lock the main thread holds while it waits for Hibernate.
+ */
+public class ItemChangeListener implements ApplicationEventPublisherAware {
+	// static: Hibernate may create more than one listener instance, and the writer only knows its own thread
+	private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+
+	private ApplicationEventPublisher publisher;
+
+	/**
+	 * Runs {@code writes} without an event per item written on this thread. The caller publishes one
+	 * {@link CatalogChangedEvent} for the lot instead, so listeners rebuild once rather than once per row.
+	 */
+	public static <T> T withoutEvents(Supplier<T> writes) {
+		boolean outer = SUPPRESSED.get();
+		SUPPRESSED.set(true);
+		try {
+			return writes.get();
+		} finally {
+			SUPPRESSED.set(outer);
+		}
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void saved(Item item) {
+		if(!SUPPRESSED.get()) {
+			publisher.publishEvent(new ItemChangedEvent(item, false));
+		}
+	}
+
+	@PostRemove
+	public void removed(Item item) {
+		if(!SUPPRESSED.get()) {
+			publisher.publishEvent(new ItemChangedEvent(item, true));
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.model.persistence;
+
+import lombok.Value;
+
+/**
+ * Published whenever an {@link Item} is inserted, updated or deleted through JPA.
+ */
+@Value
+public class ItemChangedEvent {
+	Item item;
+	boolean removed;
+}
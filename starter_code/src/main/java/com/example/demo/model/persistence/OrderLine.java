@@ -0,0 +1,42 @@
+package com.example.demo.model.persistence;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.math.BigDecimal;
+
+/**
+ * One line of a {@link UserOrder}, holding the item name and price as they were when the order was placed.
+ */
+@Embeddable
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class OrderLine {
+
+	@Column(name = "item_id", nullable = false)
+	@JsonProperty
+	private Long itemId;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private String name;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private BigDecimal unitPrice;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	public static OrderLine fromCartItem(CartItem line) {
+		return new OrderLine(line.getItem().getId(), line.getItem().getName(), line.getUnitPrice(), line.getQuantity());
+	}
+}
@@ -31,7 +31,8 @@ public class User {
 	@Column(nullable = false)
 	private String password;
 	
-	@OneToOne(cascade = CascadeType.ALL)
+	// lazy: loading a user for an order or a token would otherwise pull the cart and, through it, the user again
+	@OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id", referencedColumnName = "id")
 	@JsonIgnore
     private Cart cart;
@@ -1,5 +1,6 @@
 package com.example.demo.model.persistence;
 
+import com.example.demo.model.pricing.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,15 +21,16 @@ import java.util.stream.Collectors;
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_seq")
+	@SequenceGenerator(name = "user_order_seq", sequenceName = "user_order_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@ElementCollection
+	@CollectionTable(name = "user_order_line", joinColumns = @JoinColumn(name = "order_id", nullable = false))
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<OrderLine> items;
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
@@ -41,8 +43,11 @@ public class UserOrder {
 
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
-		order.setTotal(cart.getTotal());
+		order.setItems(cart.getItems().stream()
+				.map(OrderLine::fromCartItem)
+				.collect(Collectors.toList()));
+		// priced from the lines being ordered rather than trusting the cart's running total
+		order.setTotal(Money.toDecimal(cart.linesTotalMinorUnits()));
 		order.setUser(cart.getUser());
 		return order;
 	}
@@ -0,0 +1,7 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+}
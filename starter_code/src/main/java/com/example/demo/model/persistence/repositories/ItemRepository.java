@@ -1,11 +1,39 @@
 package com.example.demo.model.persistence.repositories;
 
+import com.example.demo.model.persistence.CatalogRevision;
 import com.example.demo.model.persistence.Item;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Transactional(readOnly = true)
 public interface ItemRepository extends JpaRepository<Item, Long> {
+	@QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = Item.BY_NAME_CACHE_REGION)})
 	public List<Item> findByName(String name);
 
+	public List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	// constructor expressions: rows come back as plain objects, not managed (or second-level cached) entities
+	@Query("select new com.example.demo.model.persistence.Item(i.id, i.name, i.price, i.description) from Item i order by i.id")
+	public List<Item> findAllUnmanaged();
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("select new com.example.demo.model.persistence.Item(i.id, i.name, i.price, i.description) from Item i order by i.id")
+	public Stream<Item> streamAllUnmanaged();
+
+	// null until the first item write or data.sql creates the row
+	@Query("select r.revision from CatalogRevision r where r.id = " + CatalogRevision.ID)
+	public Long catalogRevision();
+
 }
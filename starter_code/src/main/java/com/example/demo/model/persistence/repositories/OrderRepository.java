@@ -1,11 +1,27 @@
 package com.example.demo.model.persistence.repositories;
 
-import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
+@Transactional(readOnly = true)
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
-	List<UserOrder> findByUser(User user);
+	@Query("select o.id from UserOrder o where o.user.id = :userId and o.id < :before order by o.id desc")
+	List<Long> findIdsByUserIdBefore(@Param("userId") long userId, @Param("before") long before, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	@Query("select distinct o from UserOrder o join fetch o.user left join fetch o.items where o.id in :ids order by o.id desc")
+	List<UserOrder> findWithItemsByIdIn(@Param("ids") List<Long> ids);
+
+	@Query("select o.id as id, o.total as total from UserOrder o where o.user.id = :userId and o.id < :before order by o.id desc")
+	List<OrderSummary> findSummariesByUserIdBefore(@Param("userId") long userId, @Param("before") long before, Pageable pageable);
 }
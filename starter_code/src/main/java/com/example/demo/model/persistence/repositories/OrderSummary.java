@@ -0,0 +1,12 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Order history row without its line items.
+ */
+public interface OrderSummary {
+	Long getId();
+
+	BigDecimal getTotal();
+}
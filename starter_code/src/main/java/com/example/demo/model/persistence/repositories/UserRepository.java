@@ -2,7 +2,9 @@ package com.example.demo.model.persistence.repositories;
 
 import com.example.demo.model.persistence.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
 	User findByUsername(String username);
 }
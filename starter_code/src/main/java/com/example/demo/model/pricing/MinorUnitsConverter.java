@@ -0,0 +1,24 @@
+package com.example.demo.model.pricing;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} minor units onto the existing decimal money columns, so the schema keeps its
+ * {@code DECIMAL} values while entities hold {@code long}s.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+		return minorUnits == null ? null : Money.toDecimal(minorUnits);
+	}
+
+	@Override
+	public Long convertToEntityAttribute(BigDecimal amount) {
+		// carts created before they held a total have NULL here
+		return Money.toMinorUnits(amount);
+	}
+}
@@ -0,0 +1,40 @@
+package com.example.demo.model.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money: amounts are {@code long} counts of minor units (cents) at {@link #SCALE} decimal places, so
+ * cart arithmetic is plain integer math that allocates nothing and overflows loudly instead of wrapping.
+ * {@link BigDecimal} is only used at the edges, when reading from or writing to the database and JSON.
+ */
+public final class Money {
+	/** Decimal places of the shop currency, matching the scale of the money columns. */
+	public static final int SCALE = 2;
+
+	private Money() {
+	}
+
+	/**
+	 * Converts a decimal amount to minor units, rounding half up beyond {@link #SCALE} places as the database does.
+	 */
+	public static long toMinorUnits(BigDecimal amount) {
+		return amount == null ? 0 : amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	public static BigDecimal toDecimal(long minorUnits) {
+		return BigDecimal.valueOf(minorUnits, SCALE);
+	}
+
+	public static long times(long minorUnits, int quantity) {
+		return Math.multiplyExact(minorUnits, quantity);
+	}
+
+	public static long plus(long minorUnits, long other) {
+		return Math.addExact(minorUnits, other);
+	}
+
+	public static long minus(long minorUnits, long other) {
+		return Math.subtractExact(minorUnits, other);
+	}
+}
@@ -0,0 +1,22 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchCartRequest {
+	
+	@JsonProperty
+	private String username;
+	
+	@JsonProperty
+	private List<CartOperation> operations;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a {@link BatchCartRequest}: a positive quantity adds units of the item, a negative one removes them.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CartOperation {
+	
+	@JsonProperty
+	private long itemId;
+	
+	@JsonProperty
+	private int quantity;
+}
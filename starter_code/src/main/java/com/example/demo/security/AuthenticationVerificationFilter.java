@@ -1,12 +1,13 @@
 package com.example.demo.security;
 
-import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.var;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
-import org.springframework.stereotype.Component;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -14,13 +15,27 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
-@Component
+/**
+ * Built by {@link SecurityWebConfig} for the security chain only. As a bean, Boot would also register it as a
+ * servlet filter and every request would be authenticated twice.
+ */
 public class AuthenticationVerificationFilter extends BasicAuthenticationFilter {
-    public AuthenticationVerificationFilter(AuthenticationManager authManager) {
+    private final JwtTokenProvider tokenProvider;
+    private final VerifiedTokenCache tokenCache;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public AuthenticationVerificationFilter(AuthenticationManager authManager, JwtTokenProvider tokenProvider,
+                                            VerifiedTokenCache tokenCache, MeterRegistry meterRegistry) {
         super(authManager);
+        this.tokenProvider = tokenProvider;
+        this.tokenCache = tokenCache;
+        this.cachedTimer = verifyTimer("cached", meterRegistry);
+        this.verifiedTimer = verifyTimer("verified", meterRegistry);
+        this.rejectedTimer = verifyTimer("rejected", meterRegistry);
     }
 
     @Override
@@ -34,18 +49,21 @@ public class AuthenticationVerificationFilter extends BasicAuthenticationFilter
             return;
         }
 
-        var authentication = getAuthentication(request);
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            SecurityContextHolder.getContext().setAuthentication(getAuthentication(request));
+        } catch (JWTVerificationException e) {
+            // expired or malformed: carry on unauthenticated, so permitAll endpoints such as the token refresh
+            // still work and everything else gets the usual 401 from the entry point
+            logger.debug("bearer token rejected: " + e.getMessage());
+            SecurityContextHolder.clearContext();
+        }
         chain.doFilter(request, response);
     }
 
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest req) {
         var token = req.getHeader(SecurityConstants.HEADER_STRING);
         if (token != null) {
-            var user = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
+            var user = verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""));
             if (user != null) {
                 return new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
             }
@@ -53,4 +71,30 @@ public class AuthenticationVerificationFilter extends BasicAuthenticationFilter
         }
         return null;
     }
+
+    private String verify(String token) {
+        var start = System.nanoTime();
+        var subject = tokenCache.getSubject(token);
+        if (subject != null) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return subject;
+        }
+        try {
+            var jwt = tokenProvider.verifyAccessToken(token);
+            subject = jwt.getSubject();
+            tokenCache.put(token, subject, jwt.getExpiresAt());
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return subject;
+        } catch (JWTVerificationException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer verifyTimer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder("jwt.verify")
+                .description("Time spent authenticating a bearer token")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
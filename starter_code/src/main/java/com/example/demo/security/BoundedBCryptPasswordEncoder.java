@@ -0,0 +1,26 @@
+package com.example.demo.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * {@link BCryptPasswordEncoder} that hands every hash and verification to a {@link PasswordHashingPool}.
+ */
+@RequiredArgsConstructor
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private final PasswordHashingPool pool;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return pool.encode(() -> super.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return pool.matches(() -> super.matches(rawPassword, encodedPassword));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
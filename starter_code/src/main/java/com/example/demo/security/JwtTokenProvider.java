@@ -0,0 +1,61 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.var;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Issues and verifies the access and refresh tokens. Both are signed with one {@link Algorithm} built once from
+ * {@link SecurityConstants#SECRET}, so neither issuing nor refreshing a token ever touches a password hash.
+ */
+@Component
+public class JwtTokenProvider {
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
+    private static final Algorithm ALGORITHM = HMAC512(SecurityConstants.SECRET.getBytes());
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
+    private static final JWTVerifier REFRESH_VERIFIER = JWT.require(ALGORITHM)
+            .withClaim(SecurityConstants.TOKEN_TYPE_CLAIM, REFRESH_TOKEN)
+            .build();
+
+    public String createAccessToken(String username) {
+        return create(username, ACCESS_TOKEN, SecurityConstants.ACCESS_TOKEN_EXPIRATION_TIME);
+    }
+
+    public String createRefreshToken(String username) {
+        return create(username, REFRESH_TOKEN, SecurityConstants.REFRESH_TOKEN_EXPIRATION_TIME);
+    }
+
+    /**
+     * Verifies a token presented as a bearer credential. Refresh tokens are rejected so they can only be
+     * exchanged at the refresh endpoint.
+     */
+    public DecodedJWT verifyAccessToken(String token) {
+        var jwt = VERIFIER.verify(token);
+        if (REFRESH_TOKEN.equals(jwt.getClaim(SecurityConstants.TOKEN_TYPE_CLAIM).asString())) {
+            throw new JWTVerificationException("refresh tokens cannot be used as access tokens");
+        }
+        return jwt;
+    }
+
+    public DecodedJWT verifyRefreshToken(String token) {
+        return REFRESH_VERIFIER.verify(token);
+    }
+
+    private String create(String username, String tokenType, long expirationTime) {
+        return JWT.create()
+                .withSubject(username)
+                .withClaim(SecurityConstants.TOKEN_TYPE_CLAIM, tokenType)
+                .withExpiresAt(new Date(System.currentTimeMillis() + expirationTime))
+                .sign(ALGORITHM);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import lombok.var;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool that runs password hashing off the request threads. The queue in front of it is bounded, and
+ * work that does not fit is rejected immediately with {@link PasswordHashingRejectedException} instead of
+ * piling up behind a login burst.
+ */
+@Slf4j
+public class PasswordHashingPool {
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingPool(int threads, int queueCapacity, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        this.encodeTimer = latencyTimer("encode", meterRegistry);
+        this.matchesTimer = latencyTimer("matches", meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the hashing of a new password on the pool and waits for its result.
+     */
+    public <T> T encode(Supplier<T> work) {
+        return execute("encode", encodeTimer, work);
+    }
+
+    /**
+     * Runs the check of a password against its hash on the pool and waits for its result.
+     */
+    public <T> T matches(Supplier<T> work) {
+        return execute("matches", matchesTimer, work);
+    }
+
+    private <T> T execute(String operation, Timer timer, Supplier<T> work) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.record(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("rejected password {} because the hashing queue is full", operation);
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for password " + operation, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer latencyTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing.latency")
+                .description("Time spent hashing or verifying a password on the pool")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
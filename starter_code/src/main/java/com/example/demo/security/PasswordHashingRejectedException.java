@@ -0,0 +1,14 @@
+package com.example.demo.security;
+
+import lombok.Getter;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+@Getter
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("password hashing is at capacity");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
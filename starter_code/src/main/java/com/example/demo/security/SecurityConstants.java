@@ -2,8 +2,15 @@ package com.example.demo.security;
 
 public class SecurityConstants {
     public static final String SECRET = "oursecretkey";
-    public static final long EXPIRATION_TIME = 864_000_000; // 10 days
+    public static final long ACCESS_TOKEN_EXPIRATION_TIME = 900_000; // 15 minutes
+    public static final long REFRESH_TOKEN_EXPIRATION_TIME = 2_592_000_000L; // 30 days
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
+    public static final String REFRESH_HEADER_STRING = "Refresh-Token";
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
     public static final String SIGN_UP_URL = "/api/user/create";
+    public static final String REFRESH_URL = "/api/token/refresh";
+    public static final String HEALTH_URL = "/actuator/health";
+    public static final String PROMETHEUS_URL = "/actuator/prometheus";
+    public static final int TOKEN_CACHE_MAX_SIZE = 10_000;
 }
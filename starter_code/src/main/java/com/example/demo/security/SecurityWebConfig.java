@@ -1,5 +1,6 @@
 package com.example.demo.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
@@ -18,15 +19,21 @@ import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 public class SecurityWebConfig extends WebSecurityConfigurerAdapter {
     private final UserDetailsServiceImpl userDetailsService;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void configure(HttpSecurity httpSecurity) throws Exception {
         httpSecurity.cors().and().csrf().disable().authorizeRequests()
                 .antMatchers(HttpMethod.POST, SecurityConstants.SIGN_UP_URL).permitAll()
+                .antMatchers(HttpMethod.POST, SecurityConstants.REFRESH_URL).permitAll()
+                .antMatchers(HttpMethod.GET, SecurityConstants.HEALTH_URL, SecurityConstants.PROMETHEUS_URL).permitAll()
                 .anyRequest().authenticated()
                 .and()
-                .addFilter(new AuthenticationFilter(authenticationManager()))
-                .addFilter(new AuthenticationVerificationFilter(authenticationManager()))
+                .addFilter(new AuthenticationFilter(authenticationManager(), jwtTokenProvider))
+                .addFilter(new AuthenticationVerificationFilter(authenticationManager(), jwtTokenProvider, verifiedTokenCache,
+                        meterRegistry))
                 .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
                 .and()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
@@ -0,0 +1,134 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.var;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of bearer tokens whose signature has already been verified, so a token presented again
+ * skips the HMAC verification and decoding. Entries are keyed by a SHA-256 digest of the token, so raw
+ * tokens are never retained, and are never served past the token's own expiry. Caffeine bounds the size,
+ * dropping expired tokens first, in amortized constant time per write.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LongSupplier clock;
+
+    public VerifiedTokenCache() {
+        this(SecurityConstants.TOKEN_CACHE_MAX_SIZE, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                // eviction bookkeeping is small and amortized, running it on the caller keeps size() exact
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Returns the subject of a previously verified, still unexpired token, or {@code null} on a miss.
+     */
+    public String getSubject(String token) {
+        var entry = entries.getIfPresent(digest(token));
+        if (entry != null && entry.expiresAt > clock.getAsLong()) {
+            hits.incrementAndGet();
+            return entry.subject;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String token, String subject, Date expiresAt) {
+        if (subject == null || expiresAt == null || expiresAt.getTime() <= clock.getAsLong()) {
+            return;
+        }
+        entries.put(digest(token), new Entry(subject, expiresAt.getTime()));
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jwt.cache.requests", hits, AtomicLong::get)
+                .description("Bearer tokens looked up in the verified token cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("jwt.cache.requests", misses, AtomicLong::get)
+                .description("Bearer tokens looked up in the verified token cache")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("jwt.cache.size", entries, Cache::estimatedSize)
+                .description("Verified tokens currently cached")
+                .register(registry);
+    }
+
+    private static String digest(String token) {
+        var hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final String subject;
+        private final long expiresAt;
+    }
+
+    private final class UntilTokenExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(entry.expiresAt) - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
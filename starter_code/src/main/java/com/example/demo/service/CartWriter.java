@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs cart writes in their own transaction while holding an in-memory lock of the user. Writes for one user
+ * queue up on that lock instead of on database row locks, and different users never share one. Locks are held
+ * weakly, so a user's lock lives only while a write holds or waits for it. The {@code @Version} columns on
+ * {@code Cart} and {@code CartItem} still catch writers this lock cannot see, such as other instances; those
+ * conflicts are retried from a fresh read.
+ */
+@Component
+@Slf4j
+public class CartWriter {
+	private final TransactionTemplate transactionTemplate;
+	private final LoadingCache<Long, ReentrantLock> locks = Caffeine.newBuilder()
+			.weakValues()
+			.build(userId -> new ReentrantLock());
+	private final int maxAttempts;
+
+	public CartWriter(PlatformTransactionManager transactionManager,
+					  @Value("${cart.write.max-attempts}") int maxAttempts) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxAttempts = Math.max(1, maxAttempts);
+	}
+
+	/**
+	 * Runs {@code work} in a transaction under the user's lock, re-running it when the commit hits a version
+	 * conflict.
+	 *
+	 * @throws OptimisticLockingFailureException when every attempt conflicted
+	 */
+	public <T> T write(long userId, Supplier<T> work) {
+		// the local reference keeps the weakly held lock alive for every writer queued on it
+		ReentrantLock lock = locks.get(userId);
+		lock.lock();
+		try {
+			for(int attempt = 1; ; attempt++) {
+				try {
+					return transactionTemplate.execute(status -> work.get());
+				} catch (OptimisticLockingFailureException e) {
+					if(attempt >= maxAttempts) {
+						throw e;
+					}
+					log.debug("cart of user {} changed concurrently, retrying ({}/{})", userId, attempt, maxAttempts);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog as newline-delimited JSON straight from a forward-only database cursor. Rows come back as
+ * plain objects that never enter the persistence context or the second-level item region, so memory per export
+ * stays flat however large the catalog grows and an export does not evict the hot cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogExporter {
+
+	private final ItemRepository itemRepository;
+	private final ObjectMapper objectMapper;
+
+	@Transactional(readOnly = true)
+	public void writeNdjson(OutputStream out) throws IOException {
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		try (Stream<Item> items = itemRepository.streamAllUnmanaged()) {
+			Iterator<Item> iterator = items.iterator();
+			while(iterator.hasNext()) {
+				Item item = iterator.next();
+				objectMapper.writeValue(generator, item);
+				generator.writeRaw('\n');
+			}
+		}
+		generator.flush();
+	}
+}
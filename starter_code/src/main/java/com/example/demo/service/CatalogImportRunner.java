@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line catalog import for the nightly sync, e.g.
+ * {@code java -jar auth-course.war --server.port=0 --catalog.import.file=items.csv}. The format comes from
+ * {@code catalog.import.format} or else the file extension (csv, ndjson, jsonl). The import runs during startup,
+ * so a failed import fails it; {@link com.example.demo.MaggieApplication#main} exits once startup returns.
+ */
+@Component
+@ConditionalOnProperty("catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+	private static final int READ_BUFFER_BYTES = 1 << 16;
+
+	private final CatalogImporter catalogImporter;
+	private final String file;
+	private final String format;
+
+	public CatalogImportRunner(CatalogImporter catalogImporter, @Value("${catalog.import.file}") String file,
+							   @Value("${catalog.import.format:}") String format) {
+		this.catalogImporter = catalogImporter;
+		this.file = file;
+		this.format = format;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		Path path = Paths.get(file);
+		String name = StringUtils.hasText(format) ? format : StringUtils.getFilenameExtension(path.getFileName().toString());
+		if(name == null) {
+			throw new IllegalArgumentException("set catalog.import.format, " + path + " has no extension");
+		}
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path), READ_BUFFER_BYTES)) {
+			catalogImporter.importItems(in, CatalogImporter.Format.of(name));
+		}
+	}
+}
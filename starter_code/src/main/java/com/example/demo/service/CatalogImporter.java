@@ -0,0 +1,242 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams new items from CSV (header {@code name,price,description}) or newline-delimited JSON into the catalog.
+ * Rows are parsed one at a time and written in transactions of {@code catalog.import.batch-size} rows, each
+ * flushed as JDBC batches of the same size and then cleared, so memory stays flat however large the input is.
+ * Rows that cannot be parsed, or lack a name, description or non-negative price, are skipped and counted.
+ * Imported items publish no {@link com.example.demo.model.persistence.ItemChangedEvent} each; one
+ * {@link CatalogChangedEvent} follows the import, also when it fails after some batches were committed.
+ */
+@Component
+@Slf4j
+public class CatalogImporter {
+	private static final long PROGRESS_INTERVAL_ROWS = 100_000;
+	private static final int MAX_LOGGED_REJECTS = 10;
+
+	public enum Format {
+		CSV, NDJSON;
+
+		public static Format of(String nameOrExtension) {
+			switch(nameOrExtension.toLowerCase(Locale.ROOT)) {
+				case "csv":
+					return CSV;
+				case "ndjson":
+				case "jsonl":
+					return NDJSON;
+				default:
+					throw new IllegalArgumentException("unsupported catalog import format: " + nameOrExtension);
+			}
+		}
+	}
+
+	@lombok.Value
+	public static class Result {
+		long imported;
+		long rejected;
+		long elapsedMillis;
+
+		public double getRowsPerSecond() {
+			return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+		}
+	}
+
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Row {
+		private String name;
+		private String price;
+		private String description;
+	}
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final ApplicationEventPublisher publisher;
+	private final CsvMapper csvMapper = new CsvMapper();
+	private final int batchSize;
+
+	public CatalogImporter(EntityManager entityManager, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+						   ApplicationEventPublisher publisher, @Value("${catalog.import.batch-size}") int batchSize) {
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+		this.publisher = publisher;
+		this.batchSize = batchSize;
+	}
+
+	public Result importItems(InputStream in, Format format) throws IOException {
+		long start = System.nanoTime();
+		long imported = 0;
+		long rejected = 0;
+		long line = 0;
+		long nextProgress = PROGRESS_INTERVAL_ROWS;
+		List<Item> batch = new ArrayList<>(batchSize);
+		try {
+			try (Rows rows = format == Format.CSV ? csvRows(in) : ndjsonRows(in)) {
+				while(true) {
+					Row row;
+					try {
+						row = rows.next();
+					} catch (JsonProcessingException e) {
+						line++;
+						if(rejected++ < MAX_LOGGED_REJECTS) {
+							log.warn("catalog import: skipping unreadable row {}: {}", line, e.getOriginalMessage());
+						}
+						continue;
+					}
+					if(row == null) {
+						break;
+					}
+					line++;
+					Item item = toItem(row);
+					if(item == null) {
+						if(rejected++ < MAX_LOGGED_REJECTS) {
+							log.warn("catalog import: skipping row {}: {}", line, row);
+						}
+						continue;
+					}
+					batch.add(item);
+					if(batch.size() == batchSize) {
+						imported += write(batch);
+					}
+					if(imported >= nextProgress) {
+						nextProgress += PROGRESS_INTERVAL_ROWS;
+						log.info("catalog import: {} rows, {} rows/s", imported, String.format(Locale.ROOT, "%.0f", rowsPerSecond(imported, start)));
+					}
+				}
+			}
+			imported += write(batch);
+		} finally {
+			if(imported > 0) {
+				publisher.publishEvent(new CatalogChangedEvent(imported));
+			}
+		}
+		Result result = new Result(imported, rejected, (System.nanoTime() - start) / 1_000_000);
+		log.info("catalog import: {} rows imported, {} rejected in {} ms ({} rows/s)", result.getImported(), result.getRejected(),
+				result.getElapsedMillis(), String.format(Locale.ROOT, "%.0f", result.getRowsPerSecond()));
+		return result;
+	}
+
+	private int write(List<Item> batch) {
+		if(batch.isEmpty()) {
+			return 0;
+		}
+		int size = batch.size();
+		ItemChangeListener.withoutEvents(() -> transactionTemplate.execute(status -> {
+			Session session = entityManager.unwrap(Session.class);
+			session.setJdbcBatchSize(batchSize);
+			// a bulk load would only churn the bounded item region
+			session.setCacheMode(CacheMode.IGNORE);
+			batch.forEach(entityManager::persist);
+			entityManager.flush();
+			entityManager.clear();
+			return null;
+		}));
+		batch.clear();
+		return size;
+	}
+
+	private Rows csvRows(InputStream in) throws IOException {
+		CsvSchema schema = CsvSchema.emptySchema().withHeader();
+		MappingIterator<Row> rows = csvMapper.readerFor(Row.class).with(schema).with(CsvParser.Feature.TRIM_SPACES).readValues(in);
+		return new Rows() {
+			@Override
+			public Row next() throws IOException {
+				return rows.hasNextValue() ? rows.nextValue() : null;
+			}
+
+			@Override
+			public void close() throws IOException {
+				rows.close();
+			}
+		};
+	}
+
+	private Rows ndjsonRows(InputStream in) {
+		// parsed line by line: a streaming parser loses its place after a syntax error and would drop every later row
+		BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		ObjectReader reader = objectMapper.readerFor(Row.class);
+		return new Rows() {
+			@Override
+			public Row next() throws IOException {
+				String line;
+				do {
+					line = lines.readLine();
+					if(line == null) {
+						return null;
+					}
+				} while(!StringUtils.hasText(line));
+				return reader.readValue(line);
+			}
+
+			@Override
+			public void close() throws IOException {
+				lines.close();
+			}
+		};
+	}
+
+	/**
+	 * Next row of the input, or {@code null} once it is exhausted; a row that cannot be parsed throws and is
+	 * skipped, the following rows stay readable.
+	 */
+	private interface Rows extends Closeable {
+		Row next() throws IOException;
+	}
+
+	private static Item toItem(Row row) {
+		if(!StringUtils.hasText(row.getName()) || !StringUtils.hasText(row.getDescription()) || !StringUtils.hasText(row.getPrice())) {
+			return null;
+		}
+		BigDecimal price;
+		try {
+			price = new BigDecimal(row.getPrice().trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if(price.signum() < 0) {
+			return null;
+		}
+		return Item.builder().name(row.getName()).price(price).description(row.getDescription()).build();
+	}
+
+	private static double rowsPerSecond(long rows, long start) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return seconds == 0 ? rows : rows / seconds;
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the whole catalog already encoded as JSON (and optionally gzip), together with a strong ETag, so
+ * {@code GET /api/item} serves bytes instead of querying and serializing every item. Any committed item
+ * change, or a bulk import, bumps the catalog version. The next read rebuilds the snapshot and swaps it in as one unit, so
+ * readers always see a complete catalog.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+	private final ItemRepository itemRepository;
+	private final ObjectMapper objectMapper;
+	private final boolean gzip;
+	private final AtomicLong version = new AtomicLong();
+	// rebuilds query the database, so they must not hold a monitor (that would pin a virtual thread's carrier)
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile Snapshot current;
+
+	public CatalogSnapshot(ItemRepository itemRepository, ObjectMapper objectMapper,
+						   @Value("${catalog.snapshot.gzip}") boolean gzip) {
+		this.itemRepository = itemRepository;
+		this.objectMapper = objectMapper;
+		this.gzip = gzip;
+	}
+
+	public Snapshot get() {
+		Snapshot snapshot = current;
+		if(snapshot != null && snapshot.getVersion() == version.get()) {
+			return snapshot;
+		}
+		lock.lock();
+		try {
+			long target = version.get();
+			snapshot = current;
+			if(snapshot == null || snapshot.getVersion() != target) {
+				snapshot = build(target, itemRepository.findAll());
+				current = snapshot;
+			}
+			return snapshot;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Builds the snapshot from items already loaded while the catalog was at {@code version}, so the first read
+	 * does not have to query them. If items changed since, the next {@link #get()} rebuilds as usual.
+	 */
+	public void prime(long version, List<Item> items) {
+		lock.lock();
+		try {
+			Snapshot snapshot = current;
+			if(snapshot == null || snapshot.getVersion() < version) {
+				current = build(version, items);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		version.incrementAndGet();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogChanged(CatalogChangedEvent event) {
+		version.incrementAndGet();
+	}
+
+	private Snapshot build(long version, List<Item> items) {
+		byte[] json;
+		try {
+			json = objectMapper.writeValueAsBytes(items);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("could not serialize the catalog", e);
+		}
+		String hash = DigestUtils.md5DigestAsHex(json);
+		byte[] compressed = gzip ? gzip(json) : null;
+		log.info("catalog snapshot {} built: {} bytes", version, json.length);
+		return new Snapshot(version, json, "\"" + hash + "\"", compressed, "\"" + hash + "-gzip\"");
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+			out.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return buffer.toByteArray();
+	}
+
+	@lombok.Value
+	public static class Snapshot {
+		long version;
+		byte[] json;
+		String etag;
+		byte[] gzip;
+		String gzipEtag;
+	}
+}
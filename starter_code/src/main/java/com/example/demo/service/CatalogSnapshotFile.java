@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.CatalogRevision;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary copy of the catalog ({@code catalog.snapshot.file}) so a restart against a persistent database
+ * can skip the full item query. The header carries the {@link CatalogRevision} the catalog was at when the file was
+ * written, and the file is only used while the database still reports that revision. Reads memory-map the file;
+ * writes stream from a database cursor into a temporary file that then replaces the old one.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotFile {
+	private static final int MAGIC = 0x43415431;
+	private static final int FORMAT_VERSION = 2;
+	// magic, format version and revision come before the item count
+	private static final int COUNT_OFFSET = 16;
+
+	private final ItemRepository itemRepository;
+	private final Path path;
+
+	public CatalogSnapshotFile(ItemRepository itemRepository,
+							   @Value("${catalog.snapshot.file}") String file) {
+		this.itemRepository = itemRepository;
+		this.path = StringUtils.hasText(file) ? Paths.get(file) : null;
+	}
+
+	public boolean isEnabled() {
+		return path != null;
+	}
+
+	/**
+	 * The saved items in id order, or empty when the file is disabled, missing, unreadable or out of date.
+	 */
+	public Optional<List<Item>> read() {
+		if(path == null) {
+			return Optional.empty();
+		}
+		Long revision = itemRepository.catalogRevision();
+		if(revision == null) {
+			return Optional.empty();
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE) {
+				log.warn("catalog snapshot file {} is too large to map, loading from the database", path);
+				return Optional.empty();
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				log.warn("catalog snapshot file {} has an unknown format, loading from the database", path);
+				return Optional.empty();
+			}
+			long saved = buffer.getLong();
+			if(saved != revision) {
+				log.info("catalog snapshot file {} is stale (revision {} != {}), loading from the database", path, saved, revision);
+				return Optional.empty();
+			}
+			long count = buffer.getLong();
+			List<Item> items = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+			while(buffer.hasRemaining()) {
+				items.add(readItem(buffer));
+			}
+			if(items.size() != count) {
+				log.warn("catalog snapshot file {} is truncated, loading from the database", path);
+				return Optional.empty();
+			}
+			return Optional.of(items);
+		} catch (NoSuchFileException e) {
+			return Optional.empty();
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+			log.warn("could not read catalog snapshot file {}, loading from the database", path, e);
+			return Optional.empty();
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public long write() throws IOException {
+		Long revision = itemRepository.catalogRevision();
+		if(revision == null) {
+			log.info("catalog has no revision yet, not writing snapshot file {}", path);
+			return 0;
+		}
+		Path dir = path.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+		long count = 0;
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+				 Stream<Item> items = itemRepository.streamAllUnmanaged()) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(revision);
+				// counted while streaming and filled in below
+				out.writeLong(0);
+				Iterator<Item> iterator = items.iterator();
+				while(iterator.hasNext()) {
+					Item item = iterator.next();
+					writeItem(out, item);
+					count++;
+				}
+			}
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				channel.write((ByteBuffer) ByteBuffer.allocate(Long.BYTES).putLong(count).flip(), COUNT_OFFSET);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		log.info("catalog snapshot file {} written: {} items, {} bytes", path, count, Files.size(path));
+		return count;
+	}
+
+	private static void writeItem(DataOutputStream out, Item item) throws IOException {
+		out.writeLong(item.getId());
+		writeString(out, item.getName());
+		byte[] unscaled = item.getPrice().unscaledValue().toByteArray();
+		out.writeInt(item.getPrice().scale());
+		out.writeShort(unscaled.length);
+		out.write(unscaled);
+		writeString(out, item.getDescription());
+	}
+
+	private static Item readItem(ByteBuffer buffer) {
+		long id = buffer.getLong();
+		String name = readString(buffer);
+		int scale = buffer.getInt();
+		byte[] unscaled = new byte[buffer.getShort()];
+		buffer.get(unscaled);
+		String description = readString(buffer);
+		return new Item(id, name, new BigDecimal(new BigInteger(unscaled), scale), description);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
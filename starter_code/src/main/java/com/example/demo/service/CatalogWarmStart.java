@@ -0,0 +1,73 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads the catalog once when the application is ready and hands the same items to the search index and the
+ * JSON snapshot. With a {@link CatalogSnapshotFile} configured (the {@code persistent} profile) the items come
+ * from the file saved at the last shutdown when it still matches the database, and the file is saved again on
+ * shutdown unless it was loaded and no item has changed since. A catalog import run ({@link CatalogImportRunner})
+ * exits right after startup, so it does not load anything. This is the first query after startup, so it is also
+ * where a {@code faststart} run against a database without the schema stops.
+ */
+@Component
+@ConditionalOnExpression("'${catalog.import.file:}'.isEmpty()")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogWarmStart {
+
+	private final CatalogSnapshotFile snapshotFile;
+	private final ItemRepository itemRepository;
+	private final ItemSearchIndex itemSearchIndex;
+	private final CatalogSnapshot catalogSnapshot;
+	// catalog version the snapshot file was loaded at, -1 if it was not used
+	private volatile long fileVersion = -1;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void warm() {
+		long start = System.nanoTime();
+		long version = catalogSnapshot.getVersion();
+		Optional<List<Item>> saved;
+		List<Item> items;
+		try {
+			saved = snapshotFile.read();
+			items = saved.orElseGet(itemRepository::findAllUnmanaged);
+		} catch (InvalidDataAccessResourceUsageException e) {
+			throw new IllegalStateException("the catalog tables are missing; the faststart profile neither creates nor seeds "
+					+ "the schema, start once without it to set up the database", e);
+		}
+		if(saved.isPresent()) {
+			fileVersion = version;
+		}
+		itemSearchIndex.load(items);
+		catalogSnapshot.prime(version, items);
+		log.info("catalog loaded from {}: {} items in {} ms, ready {} ms after JVM start", saved.isPresent() ? "snapshot file" : "database",
+				items.size(), (System.nanoTime() - start) / 1_000_000, ManagementFactory.getRuntimeMXBean().getUptime());
+	}
+
+	@PreDestroy
+	public void save() {
+		if(!snapshotFile.isEnabled() || fileVersion == catalogSnapshot.getVersion()) {
+			return;
+		}
+		try {
+			snapshotFile.write();
+		} catch (IOException | RuntimeException e) {
+			log.warn("could not save the catalog snapshot file", e);
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over item names and descriptions. Terms are kept sorted, so every query term
+ * matches as a prefix; exact term matches and matches in the name rank higher. All query terms must match.
+ * The index loads the catalog once (see {@link CatalogWarmStart}) and then follows committed item changes, so
+ * searches never touch H2.
+ * <p>
+ * A search walks the items under its most selective term in id order, scores each against the terms that item
+ * was indexed with, and keeps only the best {@code limit} in a heap; nothing per match is allocated, and the walk
+ * of a term stops once the kept hits outrank anything an item under it could score.
+ * Searches do not take the lock: every change swaps in a new {@link Indexed} whole,
+ * so a search scores an item either as it was or as it is, and skips one it finds removed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+	private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final int NAME_WEIGHT = 3;
+	private static final int DESCRIPTION_WEIGHT = 1;
+	private static final int EXACT_MATCH_FACTOR = 2;
+	// highest score first, then lowest id
+	private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::getScore).reversed()
+			.thenComparing(hit -> hit.getItem().getId());
+
+	private final ItemRepository itemRepository;
+	private final Map<Long, Indexed> items = new ConcurrentHashMap<>();
+	private final NavigableMap<String, NavigableSet<Long>> nameTerms = new ConcurrentSkipListMap<>();
+	private final NavigableMap<String, NavigableSet<Long>> descriptionTerms = new ConcurrentSkipListMap<>();
+	// a lock rather than a monitor: the first load runs a query, and a virtual thread blocked inside a monitor pins its carrier
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile boolean loaded;
+
+	public void load() {
+		loadOnce(itemRepository::findAll);
+	}
+
+	/**
+	 * Loads the given catalog instead of querying it, unless the index is already loaded.
+	 */
+	public void load(Iterable<Item> catalog) {
+		loadOnce(() -> catalog);
+	}
+
+	private void loadOnce(Supplier<Iterable<Item>> catalog) {
+		if(loaded) {
+			return;
+		}
+		lock.lock();
+		try {
+			if(!loaded) {
+				catalog.get().forEach(this::put);
+				loaded = true;
+				log.info("item search index loaded: {} items, {} terms", items.size(), nameTerms.size() + descriptionTerms.size());
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public List<Item> search(String query, int limit) {
+		load();
+		String[] terms = tokenize(query).toArray(new String[0]);
+		if(terms.length == 0 || limit <= 0) {
+			return Collections.emptyList();
+		}
+		// every match holds the longest term too, and it is the prefix least likely to cover much of the catalog
+		String candidates = terms[0];
+		for(String term : terms) {
+			if(term.length() > candidates.length()) {
+				candidates = term;
+			}
+		}
+		int others = 0;
+		for(String term : terms) {
+			if(term != candidates) {
+				others += NAME_WEIGHT * bestPossibleMatch(nameTerms, term) + DESCRIPTION_WEIGHT * bestPossibleMatch(descriptionTerms, term);
+			}
+		}
+		// worst of the kept hits at the head, ready to be replaced
+		PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+		collect(nameTerms, true, candidates, terms, limit, others + DESCRIPTION_WEIGHT * bestPossibleMatch(descriptionTerms, candidates), best);
+		collect(descriptionTerms, false, candidates, terms, limit, others, best);
+		List<Hit> ranked = new ArrayList<>(best);
+		ranked.sort(RANKING);
+		return ranked.stream().map(Hit::getItem).collect(Collectors.toList());
+	}
+
+	/**
+	 * Scores the items under every term of {@code terms} that starts with {@code prefix}. {@code elsewhere} is the
+	 * most an item met here can score beyond what the term itself gives: from the other query terms, plus the
+	 * description for a name term. The description adds nothing for a description term, because items whose name
+	 * has the prefix are met under the name term first.
+	 */
+	private void collect(NavigableMap<String, NavigableSet<Long>> terms, boolean inName, String prefix, String[] query, int limit, int elsewhere,
+			PriorityQueue<Hit> best) {
+		terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).forEach((term, ids) -> {
+			int bound = elsewhere + (inName ? NAME_WEIGHT : DESCRIPTION_WEIGHT) * (term.length() == prefix.length() ? EXACT_MATCH_FACTOR : 1);
+			for(Long id : ids) {
+				// ids come in order, so once the kept hits outrank the best this term could score, so do all the rest
+				if(best.size() == limit && !ranksAbove(bound, id, best.peek())) {
+					break;
+				}
+				Indexed indexed = items.get(id);
+				// removed since the term was read, or an item met under an earlier term already
+				if(indexed == null || !indexed.isFirstMatch(prefix, inName, term)) {
+					continue;
+				}
+				int score = indexed.score(query);
+				if(score == 0) {
+					continue;
+				}
+				if(best.size() < limit) {
+					best.add(new Hit(indexed.getItem(), score));
+				} else if(ranksAbove(score, id, best.peek())) {
+					best.poll();
+					best.add(new Hit(indexed.getItem(), score));
+				}
+			}
+		});
+	}
+
+	private static int bestPossibleMatch(NavigableMap<String, NavigableSet<Long>> terms, String term) {
+		return terms.containsKey(term) ? EXACT_MATCH_FACTOR : 1;
+	}
+
+	private static boolean ranksAbove(int score, long id, Hit hit) {
+		return score > hit.getScore() || score == hit.getScore() && id < hit.getItem().getId();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		lock.lock();
+		try {
+			if(!loaded) {
+				return;
+			}
+			if(event.isRemoved()) {
+				remove(event.getItem().getId());
+			} else {
+				put(event.getItem());
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Re-reads the catalog after a bulk write that published no per-item events. Searches keep answering from the
+	 * entries already there while it runs.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogChanged(CatalogChangedEvent event) {
+		lock.lock();
+		try {
+			if(!loaded) {
+				return;
+			}
+			itemRepository.findAllUnmanaged().forEach(this::put);
+			log.info("item search index reloaded after {} items were written: {} items, {} terms", event.getItemsWritten(), items.size(),
+					nameTerms.size() + descriptionTerms.size());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Links the new terms before the item is swapped in and unlinks the old ones after, so a search finds the item
+	 * under one version's terms or the other's throughout.
+	 */
+	private void put(Item item) {
+		Long id = item.getId();
+		Set<String> name = tokenize(item.getName());
+		Set<String> description = tokenize(item.getDescription());
+		link(nameTerms, name, id);
+		link(descriptionTerms, description, id);
+		Indexed previous = items.put(id, Indexed.of(item, name, description));
+		if(previous != null) {
+			unlink(nameTerms, tokenize(previous.getItem().getName()), name, id);
+			unlink(descriptionTerms, tokenize(previous.getItem().getDescription()), description, id);
+		}
+	}
+
+	private void remove(Long id) {
+		Indexed previous = items.remove(id);
+		if(previous != null) {
+			unlink(nameTerms, tokenize(previous.getItem().getName()), Collections.emptySet(), id);
+			unlink(descriptionTerms, tokenize(previous.getItem().getDescription()), Collections.emptySet(), id);
+		}
+	}
+
+	private static void link(NavigableMap<String, NavigableSet<Long>> terms, Set<String> itemTerms, Long id) {
+		for(String term : itemTerms) {
+			terms.computeIfAbsent(term, t -> new ConcurrentSkipListSet<>()).add(id);
+		}
+	}
+
+	private static void unlink(NavigableMap<String, NavigableSet<Long>> terms, Set<String> itemTerms, Set<String> kept, Long id) {
+		for(String term : itemTerms) {
+			if(kept.contains(term)) {
+				continue;
+			}
+			Set<Long> ids = terms.get(term);
+			if(ids != null && ids.remove(id) && ids.isEmpty()) {
+				terms.remove(term, ids);
+			}
+		}
+	}
+
+	/**
+	 * A copy of an item with the terms it is indexed under; never changed once published. Each field's terms are
+	 * kept as one string, every term followed by a space, so scoring a candidate reads one array per field
+	 * instead of chasing a string per term.
+	 */
+	@lombok.Value
+	private static class Indexed {
+		Item item;
+		String nameTerms;
+		String descriptionTerms;
+
+		static Indexed of(Item item, Set<String> name, Set<String> description) {
+			Item copy = Item.builder()
+					.id(item.getId())
+					.name(item.getName())
+					.price(item.getPrice())
+					.description(item.getDescription())
+					.build();
+			return new Indexed(copy, joined(name), joined(description));
+		}
+
+		/**
+		 * Whether {@code term} is where the search meets this item first: its smallest name term with the prefix,
+		 * or its smallest such description term if no name term has it, since names are walked before descriptions.
+		 */
+		boolean isFirstMatch(String prefix, boolean inName, String term) {
+			if(match(nameTerms, prefix) > 0) {
+				return inName && isSmallestWithPrefix(nameTerms, prefix, term);
+			}
+			return !inName && isSmallestWithPrefix(descriptionTerms, prefix, term);
+		}
+
+		/**
+		 * The sum over the query terms of the best name and the best description match, 0 unless every term matches.
+		 */
+		int score(String[] query) {
+			int total = 0;
+			for(String term : query) {
+				int score = NAME_WEIGHT * match(nameTerms, term) + DESCRIPTION_WEIGHT * match(descriptionTerms, term);
+				if(score == 0) {
+					return 0;
+				}
+				total += score;
+			}
+			return total;
+		}
+
+		/**
+		 * {@link #EXACT_MATCH_FACTOR} if one of the terms is {@code prefix}, 1 if one only starts with it, else 0.
+		 */
+		private static int match(String terms, String prefix) {
+			int match = 0;
+			for(int start = 0; start < terms.length(); ) {
+				int end = terms.indexOf(' ', start);
+				if(terms.startsWith(prefix, start)) {
+					if(end - start == prefix.length()) {
+						return EXACT_MATCH_FACTOR;
+					}
+					match = 1;
+				}
+				start = end + 1;
+			}
+			return match;
+		}
+
+		private static boolean isSmallestWithPrefix(String terms, String prefix, String term) {
+			boolean found = false;
+			for(int start = 0; start < terms.length(); ) {
+				int end = terms.indexOf(' ', start);
+				if(terms.startsWith(prefix, start)) {
+					int order = compare(terms, start, end, term);
+					if(order < 0) {
+						return false;
+					}
+					found |= order == 0;
+				}
+				start = end + 1;
+			}
+			return found;
+		}
+
+		// String.compareTo on terms.substring(start, end), without the substring
+		private static int compare(String terms, int start, int end, String term) {
+			int length = Math.min(end - start, term.length());
+			for(int i = 0; i < length; i++) {
+				int difference = terms.charAt(start + i) - term.charAt(i);
+				if(difference != 0) {
+					return difference;
+				}
+			}
+			return end - start - term.length();
+		}
+
+		private static String joined(Set<String> terms) {
+			StringBuilder joined = new StringBuilder();
+			terms.forEach(term -> joined.append(term).append(' '));
+			return joined.toString();
+		}
+	}
+
+	@lombok.Value
+	private static class Hit {
+		Item item;
+		int score;
+	}
+
+	static Set<String> tokenize(String text) {
+		Set<String> terms = new LinkedHashSet<>();
+		if(text != null) {
+			for(String term : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+				if(!term.isEmpty()) {
+					terms.add(term);
+				}
+			}
+		}
+		return terms;
+	}
+}
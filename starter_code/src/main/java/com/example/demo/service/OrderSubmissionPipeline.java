@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group-commits submitted orders. Callers enqueue an order and get a future. A single writer thread drains
+ * whatever is waiting, up to {@code orders.submission.batch-size}, persists it in one transaction with
+ * batched inserts, and completes every future in the batch once it commits. If a batch fails, its orders
+ * are retried one by one so a bad order cannot fail its neighbours. Orders still queued when the pipeline stops
+ * are failed, never left waiting.
+ */
+@Component
+@Slf4j
+public class OrderSubmissionPipeline {
+	private static final long POLL_MILLIS = 100;
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final BlockingQueue<PendingOrder> queue;
+	private final int batchSize;
+	private final long retryAfterSeconds;
+	private final Thread writer = new Thread(this::drain, "order-writer");
+	private volatile boolean running = true;
+
+	public OrderSubmissionPipeline(EntityManager entityManager, PlatformTransactionManager transactionManager,
+								   @Value("${orders.submission.batch-size}") int batchSize,
+								   @Value("${orders.submission.queue-capacity}") int queueCapacity,
+								   @Value("${orders.submission.retry-after-seconds}") long retryAfterSeconds) {
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.batchSize = batchSize;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * How long a caller turned away by {@link #submit} should wait before trying again.
+	 */
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	/**
+	 * @return a future completed with the order, id assigned, once its batch has committed
+	 * @throws RejectedExecutionException when the queue is full or the pipeline is stopping
+	 */
+	public CompletableFuture<UserOrder> submit(UserOrder order) {
+		PendingOrder pending = new PendingOrder(order, new CompletableFuture<>());
+		if(!running) {
+			throw stopped();
+		}
+		if(!queue.offer(pending)) {
+			throw new RejectedExecutionException("order submission queue is full");
+		}
+		// stop() may have drained the queue for the last time between the check and the offer; if the order is
+		// still there nobody else will take it, otherwise the writer or stop() completes it
+		if(!running && queue.remove(pending)) {
+			throw stopped();
+		}
+		return pending.getResult();
+	}
+
+	@PostConstruct
+	public void start() {
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		writer.join(TimeUnit.SECONDS.toMillis(10));
+		List<PendingOrder> leftovers = new ArrayList<>();
+		queue.drainTo(leftovers);
+		if(!leftovers.isEmpty()) {
+			log.warn("order pipeline stopped with {} orders still queued", leftovers.size());
+			leftovers.forEach(pending -> pending.getResult().completeExceptionally(stopped()));
+		}
+	}
+
+	private void drain() {
+		List<PendingOrder> batch = new ArrayList<>(batchSize);
+		while(running || !queue.isEmpty()) {
+			try {
+				PendingOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				if(!write(batch) && batch.size() > 1) {
+					batch.forEach(pending -> write(Collections.singletonList(pending)));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Throwable e) {
+				// this is the only writer: fail the batch and carry on rather than leave every later order hanging
+				log.error("order batch of {} failed unexpectedly", batch.size(), e);
+				batch.forEach(pending -> pending.getResult().completeExceptionally(e));
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private boolean write(List<PendingOrder> batch) {
+		List<UserOrder> rows;
+		try {
+			rows = transactionTemplate.execute(status -> {
+				List<UserOrder> persisted = batch.stream()
+						.map(pending -> attach(pending.getOrder()))
+						.collect(Collectors.toList());
+				persisted.forEach(entityManager::persist);
+				return persisted;
+			});
+		} catch (RuntimeException e) {
+			log.warn("order batch of {} failed", batch.size(), e);
+			if(batch.size() == 1) {
+				batch.get(0).getResult().completeExceptionally(e);
+			}
+			return false;
+		}
+		for(int i = 0; i < batch.size(); i++) {
+			PendingOrder pending = batch.get(i);
+			pending.getOrder().setId(rows.get(i).getId());
+			pending.getResult().complete(pending.getOrder());
+		}
+		log.debug("order batch of {} committed", batch.size());
+		return true;
+	}
+
+	private static RejectedExecutionException stopped() {
+		return new RejectedExecutionException("order submission pipeline is stopped");
+	}
+
+	private UserOrder attach(UserOrder order) {
+		return UserOrder.builder()
+				.user(entityManager.getReference(User.class, order.getUser().getId()))
+				.items(new ArrayList<>(order.getItems()))
+				.total(order.getTotal())
+				.build();
+	}
+
+	@lombok.Value
+	private static class PendingOrder {
+		UserOrder order;
+		CompletableFuture<UserOrder> result;
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import lombok.Value;
+
+/**
+ * Identifiers a username resolves to. Small and immutable, so it is safe to share across requests in a cache.
+ */
+@Value
+public class UserKey {
+	long userId;
+	Long cartId;
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link UserRepository#findByUsername} that remembers which user and cart a
+ * username belongs to. Callers load the entities they need by primary key. Unknown usernames are not cached,
+ * so a user created after a failed lookup is found on the next request.
+ */
+@Component
+public class UserLookupCache {
+
+	private final UserRepository userRepository;
+	private final Cache<String, UserKey> cache;
+
+	public UserLookupCache(UserRepository userRepository,
+						   @Value("${users.lookup-cache.max-size}") long maxSize,
+						   MeterRegistry meterRegistry) {
+		this.userRepository = userRepository;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "userLookup");
+		Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+				.tag("cache", "userLookup")
+				.register(meterRegistry);
+	}
+
+	public Optional<UserKey> find(String username) {
+		if(username == null) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(cache.get(username, this::load));
+	}
+
+	public void invalidate(String username) {
+		cache.invalidate(username);
+	}
+
+	private UserKey load(String username) {
+		User user = userRepository.findByUsername(username);
+		if(user == null) {
+			return null;
+		}
+		return new UserKey(user.getId(), user.getCart() == null ? null : user.getCart().getId());
+	}
+}
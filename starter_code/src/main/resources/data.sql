@@ -1,2 +1,5 @@
-insert into item (name, price, description) values ('Round Widget', 2.99, 'A widget that is round');
-insert into item (name, price, description) values ('Square Widget', 1.99, 'A widget that is square');
\ No newline at end of file
+insert into catalog_revision (id, revision) select 1, 0 from dual where not exists (select * from catalog_revision where id = 1);
+-- seed items are only added when missing, and adding one moves the catalog revision like any other item write
+update catalog_revision set revision = revision + 1 where id = 1 and (select count(*) from item where id in (1, 2)) < 2;
+insert into item (id, name, price, description) select 1, 'Round Widget', 2.99, 'A widget that is round' from dual where not exists (select * from item where id = 1);
+insert into item (id, name, price, description) select 2, 'Square Widget', 1.99, 'A widget that is square' from dual where not exists (select * from item where id = 2);
@@ -0,0 +1,41 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    public void perTaskExecutorRunsEachTaskOnANamedVirtualThread() throws Exception {
+        assumeTrue(virtualThreadsAvailable());
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor("http-vt-");
+        try {
+            Thread first = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            Thread second = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertEquals(true, Thread.class.getMethod("isVirtual").invoke(first));
+            assertTrue(first.getName().startsWith("http-vt-"));
+            assertTrue(first != second);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void perTaskExecutorFailsFastWithoutVirtualThreads() {
+        assumeFalse(virtualThreadsAvailable());
+        VirtualThreadConfig.newVirtualThreadPerTaskExecutor("http-vt-");
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        String version = System.getProperty("java.specification.version");
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    }
+}
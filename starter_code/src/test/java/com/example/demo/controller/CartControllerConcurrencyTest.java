@@ -0,0 +1,160 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartItem;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartItemRepository;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.service.CartWriter;
+import com.example.demo.service.UserLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Hammers one cart from many threads against a real database and checks that no add is lost.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CartControllerConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @After
+    public void cleanUp() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        cartItemRepository.deleteAll();
+        userRepository.deleteAll();
+        cartRepository.deleteAll();
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    public void concurrentAddsFromOneUserAreNeverLost() throws Exception {
+        var item = givenUserWithCart("maggie");
+        var controller = controller(new CartWriter(transactionManager, 3));
+
+        var statuses = hammer(i -> controller, item);
+
+        assertEquals(THREADS * ADDS_PER_THREAD, statuses.ok);
+        assertCartHolds("maggie", statuses.ok);
+    }
+
+    @Test
+    public void versionConflictsBetweenInstancesAreRetriedOrRejectedButNeverLost() throws Exception {
+        var item = givenUserWithCart("maggie");
+        var first = controller(new CartWriter(transactionManager, 5));
+        var second = controller(new CartWriter(transactionManager, 5));
+
+        var statuses = hammer(i -> i % 2 == 0 ? first : second, item);
+
+        assertTrue(statuses.ok > 0);
+        assertEquals(THREADS * ADDS_PER_THREAD, statuses.ok + statuses.conflict);
+        assertCartHolds("maggie", statuses.ok);
+    }
+
+    @Test
+    public void aStaleCartLineIsRejectedByItsVersion() {
+        var item = givenUserWithCart("maggie");
+        controller(new CartWriter(transactionManager, 3)).addToCart(ModifyCartRequest.builder()
+                .username("maggie").itemId(item.getId()).quantity(1).build());
+        var stale = cartItemRepository.findAll().get(0);
+        var fresh = cartItemRepository.findAll().get(0);
+        fresh.setQuantity(5);
+        cartItemRepository.save(fresh);
+
+        stale.setQuantity(7);
+        try {
+            cartItemRepository.save(stale);
+            fail("expected the stale line to fail its version check");
+        } catch (ObjectOptimisticLockingFailureException e) {
+            assertEquals(5, cartItemRepository.findAll().get(0).getQuantity());
+        }
+    }
+
+    private Statuses hammer(IntFunction<CartController> controllers, Item item) throws Exception {
+        var tasks = new ArrayList<Callable<Statuses>>();
+        for (int t = 0; t < THREADS; t++) {
+            var controller = controllers.apply(t);
+            tasks.add(() -> {
+                var statuses = new Statuses();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    var status = controller.addToCart(ModifyCartRequest.builder()
+                            .username("maggie").itemId(item.getId()).quantity(1).build()).getStatusCode();
+                    if (status == HttpStatus.OK) {
+                        statuses.ok++;
+                    } else if (status == HttpStatus.CONFLICT) {
+                        statuses.conflict++;
+                    }
+                }
+                return statuses;
+            });
+        }
+        var total = new Statuses();
+        for (Future<Statuses> result : executor.invokeAll(tasks)) {
+            total.ok += result.get().ok;
+            total.conflict += result.get().conflict;
+        }
+        return total;
+    }
+
+    private void assertCartHolds(String username, int units) {
+        var cart = cartRepository.findById(userRepository.findByUsername(username).getCart().getId()).get();
+        var lines = cartItemRepository.findAll();
+        assertEquals(1, lines.size());
+        assertEquals(units, lines.stream().mapToInt(CartItem::getQuantity).sum());
+        assertEquals(0, new BigDecimal(units).compareTo(cart.getTotal()));
+    }
+
+    private CartController controller(CartWriter cartWriter) {
+        var userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        return new CartController(userLookupCache, cartRepository, itemRepository, cartItemRepository, cartWriter);
+    }
+
+    private Item givenUserWithCart(String username) {
+        userRepository.save(User.builder().username(username).password("password").cart(new Cart()).build());
+        return itemRepository.save(Item.builder().name("cup").description("red cup").price(BigDecimal.ONE).build());
+    }
+
+    private static class Statuses {
+        int ok;
+        int conflict;
+    }
+}
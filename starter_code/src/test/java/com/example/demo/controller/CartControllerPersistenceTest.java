@@ -0,0 +1,145 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartItemRepository;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchCartRequest;
+import com.example.demo.model.requests.CartOperation;
+import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.service.CartWriter;
+import com.example.demo.service.UserLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CartControllerPersistenceTest {
+    @Autowired private EntityManager entityManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private CartController controller;
+    private Statistics statistics;
+
+    @Before
+    public void init() {
+        var userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        controller = new CartController(userLookupCache, cartRepository, itemRepository, cartItemRepository,
+                new CartWriter(transactionManager, 3));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void addToCartStatementCountDoesNotGrowWithCartSize() {
+        var smallCart = statementsForAddToCart("small", 5);
+        var largeCart = statementsForAddToCart("large", 200);
+
+        assertEquals(smallCart, largeCart);
+    }
+
+    @Test
+    public void addToCartUpdatesOnlyTheChangedLineAndTheCart() {
+        statementsForAddToCart("maggie", 50);
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    public void removeFromCartDeletesOnlyTheEmptiedLine() {
+        var username = "maggie";
+        var item = fillCart(username, 50);
+        statistics.clear();
+
+        controller.removeFromCart(ModifyCartRequest.builder().username(username).itemId(item.getId()).quantity(1).build());
+        entityManager.flush();
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    public void modifyCartQueryCountDoesNotGrowWithTheNumberOfOperations() {
+        var few = queriesForBatch("few", 2);
+        var many = queriesForBatch("many", 40);
+
+        assertEquals(few, many);
+    }
+
+    private long queriesForBatch(String username, int operations) {
+        fillCart(username, 1);
+        var items = new ArrayList<Item>();
+        for (int i = 0; i < operations; i++) {
+            items.add(itemRepository.save(Item.builder().name(username + " extra " + i).description("item").price(BigDecimal.ONE).build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<CartOperation> batch = new ArrayList<>();
+        items.forEach(item -> batch.add(CartOperation.builder().itemId(item.getId()).quantity(2).build()));
+        statistics.clear();
+
+        var cart = controller.modifyCart(BatchCartRequest.builder().username(username).operations(batch).build()).getBody();
+        entityManager.flush();
+
+        assertEquals(operations + 1, cart.getItems().size());
+        assertEquals(operations, statistics.getEntityInsertCount());
+        return statistics.getQueryExecutionCount();
+    }
+
+    private long statementsForAddToCart(String username, int lines) {
+        var item = fillCart(username, lines);
+        statistics.clear();
+
+        controller.addToCart(ModifyCartRequest.builder().username(username).itemId(item.getId()).quantity(3).build());
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Creates a user whose cart holds one unit of {@code lines} distinct items and returns one of those items,
+     * leaving the persistence context empty so the measured call starts cold.
+     */
+    private Item fillCart(String username, int lines) {
+        var cart = cartRepository.save(new Cart());
+        userRepository.save(User.builder().username(username).password("password").cart(cart).build());
+        Item item = null;
+        for (int i = 0; i < lines; i++) {
+            item = itemRepository.save(Item.builder()
+                    .name(username + " item " + i)
+                    .description("item")
+                    .price(BigDecimal.ONE)
+                    .build());
+            cart.addItem(item);
+        }
+        cartRepository.save(cart);
+        entityManager.flush();
+        entityManager.clear();
+        return item;
+    }
+}
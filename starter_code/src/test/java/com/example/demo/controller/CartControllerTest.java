@@ -2,26 +2,40 @@ package com.example.demo.controller;
 
 import com.example.demo.controller.CartController;
 import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartItem;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartItemRepository;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BatchCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.service.CartWriter;
+import com.example.demo.service.UserLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.var;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -29,36 +43,61 @@ public class CartControllerTest {
     @Mock private UserRepository userRepository;
     @Mock private CartRepository cartRepository;
     @Mock private ItemRepository itemRepository;
+    @Mock private CartItemRepository cartItemRepository;
 
     private CartController controller;
 
     @Before
     public void init() {
-        controller = new CartController(userRepository, cartRepository, itemRepository);
+        var userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        controller = new CartController(userLookupCache, cartRepository, itemRepository, cartItemRepository,
+                new CartWriter(mock(PlatformTransactionManager.class), 3));
     }
 
     @Test
     public void addToCartReturnsCartWithThreeItemsWhenTwoAreAdded() {
         var username = "maggie";
         var itemId = 1L;
-        var existingItems = new ArrayList<Item>();
-        existingItems.add(Item.builder().name("first item").price(BigDecimal.ONE).build());
-        var cart = Cart.builder().items(existingItems).build();
-        var user = User.builder().cart(cart).build();
-        var item = Item.builder().name("other item").price(BigDecimal.TEN).build();
+        var cart = new Cart();
+        cart.addItem(Item.builder().id(2L).name("first item").price(BigDecimal.ONE).build());
+        givenUserWithCart(username, cart);
+        var item = Item.builder().id(itemId).name("other item").price(BigDecimal.TEN).build();
         var cartRequest = ModifyCartRequest.builder()
                 .username(username)
                 .itemId(itemId)
                 .quantity(2)
                 .build();
 
-        when(userRepository.findByUsername(username)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(cartRepository.save(any())).thenReturn(null);
 
         var updatedCart = controller.addToCart(cartRequest).getBody();
 
-        assertEquals(3, updatedCart.getItems().size());
+        assertEquals(2, updatedCart.getItems().size());
+        assertEquals(3, updatedCart.getItems().stream().mapToInt(CartItem::getQuantity).sum());
+        assertEquals(new BigDecimal("21.00"), updatedCart.getTotal());
+    }
+
+    @Test
+    public void addToCartKeepsASingleLinePerItemRegardlessOfQuantity() {
+        var username = "maggie";
+        var itemId = 1L;
+        givenUserWithCart(username, new Cart());
+        var item = Item.builder().id(itemId).name("bulk item").price(new BigDecimal("0.50")).build();
+        var cartRequest = ModifyCartRequest.builder()
+                .username(username)
+                .itemId(itemId)
+                .quantity(500)
+                .build();
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        controller.addToCart(cartRequest);
+        var updatedCart = controller.addToCart(cartRequest).getBody();
+
+        assertEquals(1, updatedCart.getItems().size());
+        assertEquals(1000, updatedCart.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("500.00"), updatedCart.getTotal());
     }
 
     @Test
@@ -74,7 +113,7 @@ public class CartControllerTest {
     @Test
     public void addToCartReturnsNotFoundWhenItemNotFound() {
         var username = "maggie";
-        when(userRepository.findByUsername(username)).thenReturn(User.builder().username(username).build());
+        givenUserWithCart(username, new Cart());
         when(itemRepository.findById(any())).thenReturn(Optional.empty());
 
         var statusCode = controller.addToCart(ModifyCartRequest.builder().username(username).itemId(1L).build()).getStatusCode();
@@ -86,24 +125,46 @@ public class CartControllerTest {
     public void removeFromCartReturnsCartWithZeroItemsWhenOneWasRemoved() {
         var username = "maggie";
         var itemId = 1L;
-        var existingItems = new ArrayList<Item>();
-        existingItems.add(Item.builder().name("first item").price(BigDecimal.ONE).build());
-        var cart = Cart.builder().items(existingItems).build();
-        var user = User.builder().cart(cart).build();
-        var item = Item.builder().name("item to delete").price(BigDecimal.TEN).build();
+        var item = Item.builder().id(itemId).name("item to delete").price(BigDecimal.TEN).build();
+        var cart = new Cart();
+        cart.addItem(item);
+        givenUserWithCart(username, cart);
         var cartRequest = ModifyCartRequest.builder()
                 .username(username)
                 .itemId(itemId)
                 .quantity(1)
                 .build();
 
-        when(userRepository.findByUsername(username)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(cartRepository.save(any())).thenReturn(null);
 
         var updatedCart = controller.removeFromCart(cartRequest).getBody();
 
         assertEquals(0, updatedCart.getItems().size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(updatedCart.getTotal()));
+    }
+
+    @Test
+    public void removeFromCartNeverRemovesMoreThanTheLineHolds() {
+        var username = "maggie";
+        var itemId = 1L;
+        var item = Item.builder().id(itemId).name("item to delete").price(BigDecimal.TEN).build();
+        var cart = new Cart();
+        cart.addItem(item, 3);
+        cart.addItem(Item.builder().id(2L).name("kept item").price(BigDecimal.ONE).build());
+        givenUserWithCart(username, cart);
+        var cartRequest = ModifyCartRequest.builder()
+                .username(username)
+                .itemId(itemId)
+                .quantity(5)
+                .build();
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        var updatedCart = controller.removeFromCart(cartRequest).getBody();
+
+        assertEquals(1, updatedCart.getItems().size());
+        assertEquals(new BigDecimal("1.00"), updatedCart.getTotal());
     }
 
     @Test
@@ -119,11 +180,83 @@ public class CartControllerTest {
     @Test
     public void removeFromCartReturnsNotFoundWhenItemNotFound() {
         var username = "maggie";
-        when(userRepository.findByUsername(username)).thenReturn(User.builder().username(username).build());
+        givenUserWithCart(username, new Cart());
         when(itemRepository.findById(any())).thenReturn(Optional.empty());
 
         var statusCode = controller.removeFromCart(ModifyCartRequest.builder().username(username).itemId(1L).build()).getStatusCode();
 
         assertEquals(HttpStatus.NOT_FOUND, statusCode);
     }
+
+    @Test
+    public void modifyCartAppliesEveryOperationAgainstOneItemLookup() {
+        var username = "maggie";
+        var cup = Item.builder().id(1L).name("cup").price(BigDecimal.ONE).build();
+        var plate = Item.builder().id(2L).name("plate").price(BigDecimal.TEN).build();
+        var cart = new Cart();
+        cart.addItem(plate, 2);
+        givenUserWithCart(username, cart);
+        when(itemRepository.findAllById(any())).thenReturn(Arrays.asList(cup, plate));
+        var request = BatchCartRequest.builder()
+                .username(username)
+                .operations(Arrays.asList(
+                        CartOperation.builder().itemId(1L).quantity(3).build(),
+                        CartOperation.builder().itemId(2L).quantity(-2).build(),
+                        CartOperation.builder().itemId(1L).quantity(-1).build()))
+                .build();
+
+        var updatedCart = controller.modifyCart(request).getBody();
+
+        assertEquals(1, updatedCart.getItems().size());
+        assertEquals(2, updatedCart.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("2.00"), updatedCart.getTotal());
+        verify(itemRepository, never()).findById(any());
+    }
+
+    @Test
+    public void modifyCartLeavesTheCartUntouchedWhenAnyItemIsMissing() {
+        var username = "maggie";
+        var cup = Item.builder().id(1L).name("cup").price(BigDecimal.ONE).build();
+        givenUserWithCart(username, new Cart());
+        when(itemRepository.findAllById(any())).thenReturn(Collections.singletonList(cup));
+        var request = BatchCartRequest.builder()
+                .username(username)
+                .operations(Arrays.asList(
+                        CartOperation.builder().itemId(1L).quantity(1).build(),
+                        CartOperation.builder().itemId(9L).quantity(1).build()))
+                .build();
+
+        var statusCode = controller.modifyCart(request).getStatusCode();
+
+        assertEquals(HttpStatus.NOT_FOUND, statusCode);
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    public void modifyCartReturnsBadRequestWithoutOperations() {
+        var request = BatchCartRequest.builder().username("maggie").operations(Collections.emptyList()).build();
+
+        var statusCode = controller.modifyCart(request).getStatusCode();
+
+        assertEquals(HttpStatus.BAD_REQUEST, statusCode);
+    }
+
+    @Test
+    public void addToCartReturnsConflictWhenTheCartKeepsChanging() {
+        var username = "maggie";
+        givenUserWithCart(username, new Cart());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(Item.builder().id(1L).price(BigDecimal.ONE).build()));
+        when(cartRepository.save(any())).thenThrow(new OptimisticLockingFailureException("stale cart"));
+
+        var statusCode = controller.addToCart(ModifyCartRequest.builder().username(username).itemId(1L).quantity(1).build()).getStatusCode();
+
+        assertEquals(HttpStatus.CONFLICT, statusCode);
+        verify(cartRepository, times(3)).findById(10L);
+    }
+
+    private void givenUserWithCart(String username, Cart cart) {
+        cart.setId(10L);
+        when(userRepository.findByUsername(username)).thenReturn(User.builder().id(1L).username(username).cart(cart).build());
+        when(cartRepository.findById(10L)).thenReturn(Optional.of(cart));
+    }
 }
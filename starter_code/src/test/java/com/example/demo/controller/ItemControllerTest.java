@@ -3,40 +3,123 @@ package com.example.demo.controller;
 import com.example.demo.controller.ItemController;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.service.CatalogExporter;
+import com.example.demo.service.CatalogSnapshot;
+import com.example.demo.service.ItemSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.var;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ItemControllerTest {
     @Mock private ItemRepository itemRepository;
+    @Mock private CatalogExporter catalogExporter;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private ItemController controller;
 
     @Before
     public void init() {
-        controller = new ItemController(itemRepository);
+        controller = new ItemController(itemRepository, new CatalogSnapshot(itemRepository, objectMapper, true), catalogExporter,
+                new ItemSearchIndex(itemRepository));
     }
 
     @Test
-    public void getItemsReturnsListOfItems() {
+    public void getItemsReturnsListOfItems() throws IOException {
         var expectedItems = Collections.singletonList(Item.builder().name("item").build());
         when(itemRepository.findAll()).thenReturn(expectedItems);
 
-        var actualItems = controller.getItems().getBody();
+        var actualItems = controller.getItems(null, null).getBody();
 
-        assertEquals(expectedItems, actualItems);
+        assertArrayEquals(objectMapper.writeValueAsBytes(expectedItems), actualItems);
+    }
+
+    @Test
+    public void getItemsReturnsNotModifiedStatusWhenEtagMatches() {
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(Item.builder().name("item").build()));
+        var etag = controller.getItems(null, null).getHeaders().getETag();
+
+        var response = controller.getItems(etag, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void getItemsReturnsGzipBodyWhenAccepted() throws IOException {
+        var expectedItems = Collections.singletonList(Item.builder().name("item").build());
+        when(itemRepository.findAll()).thenReturn(expectedItems);
+
+        var response = controller.getItems(null, "gzip, deflate");
+
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertEquals(expectedItems.get(0).getName(), objectMapper.readTree(in).get(0).get("name").asText());
+        }
+    }
+
+    @Test
+    public void getItemsHonoursGzipQualityValues() {
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(Item.builder().name("item").build()));
+
+        assertNull(controller.getItems(null, "gzip;q=0").getHeaders().getFirst("Content-Encoding"));
+        assertNull(controller.getItems(null, "deflate, gzip ; q=0.0").getHeaders().getFirst("Content-Encoding"));
+        assertNull(controller.getItems(null, "*;q=0").getHeaders().getFirst("Content-Encoding"));
+        assertNull(controller.getItems(null, "gzip;q=0, *").getHeaders().getFirst("Content-Encoding"));
+        assertEquals("gzip", controller.getItems(null, "gzip;q=0.5").getHeaders().getFirst("Content-Encoding"));
+        assertEquals("gzip", controller.getItems(null, "identity, *").getHeaders().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    public void getItemsServesPlainJsonWithTheIdentityEtagWhenGzipIsRefused() throws IOException {
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(Item.builder().name("item").build()));
+        var plainEtag = controller.getItems(null, null).getHeaders().getETag();
+
+        var response = controller.getItems(null, "gzip;q=0");
+
+        assertEquals(plainEtag, response.getHeaders().getETag());
+        assertEquals("item", objectMapper.readTree(response.getBody()).get(0).get("name").asText());
+    }
+
+    @Test
+    public void getItemPageReturnsNextCursorWhenPageIsFull() {
+        var items = Arrays.asList(Item.builder().id(4L).build(), Item.builder().id(7L).build());
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(3L, PageRequest.of(0, 2))).thenReturn(items);
+
+        var response = controller.getItemPage(3L, 2);
+
+        assertEquals(items, response.getBody());
+        assertEquals("7", response.getHeaders().getFirst(PagingHeaders.NEXT_CURSOR));
+    }
+
+    @Test
+    public void getItemPageOmitsNextCursorOnTheLastPage() {
+        var items = Collections.singletonList(Item.builder().id(4L).build());
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(3L, PageRequest.of(0, 2))).thenReturn(items);
+
+        var response = controller.getItemPage(3L, 2);
+
+        assertNull(response.getHeaders().getFirst(PagingHeaders.NEXT_CURSOR));
     }
 
     @Test
@@ -78,4 +161,17 @@ public class ItemControllerTest {
 
         assertEquals(expectedItems, actualItems);
     }
+
+    @Test
+    public void searchItemsCapsTheLimit() {
+        var items = new ArrayList<Item>();
+        for (long id = 1; id <= 150; id++) {
+            items.add(Item.builder().id(id).name("widget " + id).description("widget").build());
+        }
+        when(itemRepository.findAll()).thenReturn(items);
+
+        var actualItems = controller.searchItems("widget", 1000).getBody();
+
+        assertEquals(100, actualItems.size());
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.service.OrderSubmissionPipeline;
+import com.example.demo.service.UserLookupCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderControllerPersistenceTest {
+    @Autowired private EntityManager entityManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OrderController controller;
+    private Statistics statistics;
+
+    @Before
+    public void init() {
+        var userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        controller = new OrderController(userLookupCache, cartRepository, orderRepository, mock(OrderSubmissionPipeline.class));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void getOrdersForUserLoadsAPageOfOrdersAndTheirItemsWithConstantQueries() throws Exception {
+        createOrders("maggie", 30);
+        var smallPage = statementsForHistoryPage("maggie", 5);
+        var largePage = statementsForHistoryPage("maggie", 25);
+
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    public void getOrdersForUserLoadsTheOrderingUserWithoutItsCart() throws Exception {
+        createOrders("maggie", 3);
+
+        var statements = statementsForHistoryPage("maggie", 20);
+
+        assertEquals(2, statements);
+        assertEquals(0, statistics.getEntityStatistics(Cart.class.getName()).getLoadCount());
+    }
+
+    @Test
+    public void getOrdersForUserPagesByCursor() {
+        createOrders("maggie", 3);
+
+        var firstPage = controller.getOrdersForUser("maggie", Long.MAX_VALUE, 2);
+        var cursor = Long.parseLong(firstPage.getHeaders().getFirst(PagingHeaders.NEXT_CURSOR));
+        var secondPage = controller.getOrdersForUser("maggie", cursor, 2).getBody();
+
+        assertEquals(2, firstPage.getBody().size());
+        assertEquals(1, firstPage.getBody().get(0).getItems().size());
+        assertEquals(2, firstPage.getBody().get(0).getItems().get(0).getQuantity());
+        assertEquals(1, secondPage.size());
+    }
+
+    @Test
+    public void getOrdersForUserReadsLinesWithoutTouchingItemsAndKeepsPurchasePrices() {
+        createOrders("maggie", 2);
+        var item = itemRepository.findByName("cup").get(0);
+        item.setPrice(BigDecimal.TEN);
+        item.setName("renamed cup");
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        var orders = controller.getOrdersForUser("maggie", Long.MAX_VALUE, 20).getBody();
+
+        assertEquals(0, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        var line = orders.get(0).getItems().get(0);
+        assertEquals("cup", line.getName());
+        assertEquals(0, BigDecimal.ONE.compareTo(line.getUnitPrice()));
+        assertEquals(item.getId(), line.getItemId());
+    }
+
+    private long statementsForHistoryPage(String username, int size) throws Exception {
+        entityManager.clear();
+        controller.getOrdersForUser(username, Long.MAX_VALUE, 1);
+        entityManager.clear();
+        statistics.clear();
+
+        objectMapper.writeValueAsBytes(controller.getOrdersForUser(username, Long.MAX_VALUE, size).getBody());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createOrders(String username, int orders) {
+        var cart = cartRepository.save(new Cart());
+        var user = userRepository.save(User.builder().username(username).password("password").cart(cart).build());
+        cart.setUser(user);
+        var item = itemRepository.save(Item.builder().name("cup").description("red cup").price(BigDecimal.ONE).build());
+        cart.addItem(item, 2);
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(UserOrder.createFromCart(cart));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -3,62 +3,109 @@ package com.example.demo.controller;
 import com.example.demo.controller.OrderController;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.OrderSummary;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.service.OrderSubmissionPipeline;
+import com.example.demo.service.UserLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.var;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrderControllerTest {
     @Mock UserRepository userRepository;
+    @Mock CartRepository cartRepository;
     @Mock OrderRepository orderRepository;
+    @Mock OrderSubmissionPipeline orderSubmissionPipeline;
 
     private OrderController controller;
 
     @Before
     public void init() {
-        controller = new OrderController(userRepository, orderRepository);
+        var userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        controller = new OrderController(userLookupCache, cartRepository, orderRepository, orderSubmissionPipeline);
     }
 
     @Test
     public void submitReturnsASavedOrderWithTheUsersCartItem() {
         var username = "maggie";
-        var expectedItems = Collections.singletonList(Item.builder()
+        var cup = Item.builder()
+                .id(1L)
                 .name("cup")
                 .description("red cup")
-                .build());
-        var userCart = Cart.builder().items(expectedItems).total(BigDecimal.ONE).build();
-        var user = User.builder().username(username).cart(userCart).build();
-        var userOrder = UserOrder.builder().items(expectedItems).build();
+                .price(BigDecimal.ONE)
+                .build();
+        var expectedItems = Collections.singletonList(new OrderLine(1L, "cup", new BigDecimal("1.00"), 2));
+        var userCart = new Cart();
+        userCart.setId(10L);
+        userCart.addItem(cup, 2);
+        var user = User.builder().id(1L).username(username).cart(userCart).build();
+        userCart.setUser(user);
 
         when(userRepository.findByUsername(username)).thenReturn(user);
-        lenient().when(orderRepository.save(userOrder)).thenReturn(null);
+        when(cartRepository.findById(10L)).thenReturn(Optional.of(userCart));
+        when(orderSubmissionPipeline.submit(any())).thenAnswer(invocation -> {
+            UserOrder submitted = invocation.getArgument(0);
+            submitted.setId(7L);
+            return CompletableFuture.completedFuture(submitted);
+        });
 
-        var order = controller.submit(username).getBody();
+        var order = controller.submit(username).join().getBody();
 
         assertEquals(expectedItems, order.getItems());
+        assertEquals(user, order.getUser());
+        assertEquals(Long.valueOf(7L), order.getId());
+    }
+
+    @Test
+    public void submitReturnsServiceUnavailableWhenThePipelineIsFull() {
+        var username = "maggie";
+        var userCart = new Cart();
+        userCart.setId(10L);
+        userCart.setItems(Collections.emptyList());
+        var user = User.builder().id(1L).username(username).cart(userCart).build();
+        userCart.setUser(user);
+        when(userRepository.findByUsername(username)).thenReturn(user);
+        when(cartRepository.findById(10L)).thenReturn(Optional.of(userCart));
+        when(orderSubmissionPipeline.submit(any())).thenThrow(new RejectedExecutionException("full"));
+        when(orderSubmissionPipeline.getRetryAfterSeconds()).thenReturn(5L);
+
+        var response = controller.submit(username).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst("Retry-After"));
     }
 
     @Test
     public void submitReturnsNotFoundStatusWhenUserNotFound() {
         when(userRepository.findByUsername(anyString())).thenReturn(null);
 
-        var statusCode = controller.submit("username").getStatusCode();
+        var statusCode = controller.submit("username").join().getStatusCode();
 
         assertEquals(HttpStatus.NOT_FOUND, statusCode);
     }
@@ -66,21 +113,46 @@ public class OrderControllerTest {
     @Test
     public void getOrdersForUserReturnsListOfUserOrders() {
         var username = "maggie";
-        var user = User.builder().username(username).build();
-        var expectedUserOrders = Collections.singletonList(UserOrder.builder().user(user).build());
+        var user = User.builder().id(1L).username(username).build();
+        var expectedUserOrders = Collections.singletonList(UserOrder.builder().id(5L).user(user).build());
         when(userRepository.findByUsername(username)).thenReturn(user);
-        when(orderRepository.findByUser(user)).thenReturn(expectedUserOrders);
+        when(orderRepository.findIdsByUserIdBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 20))).thenReturn(Collections.singletonList(5L));
+        when(orderRepository.findWithItemsByIdIn(Collections.singletonList(5L))).thenReturn(expectedUserOrders);
+
+        var response = controller.getOrdersForUser(username, Long.MAX_VALUE, 20);
+
+        assertEquals(expectedUserOrders, response.getBody());
+        assertNull(response.getHeaders().getFirst(PagingHeaders.NEXT_CURSOR));
+    }
+
+    @Test
+    public void getOrdersForUserReturnsNextCursorWhenPageIsFull() {
+        var username = "maggie";
+        when(userRepository.findByUsername(username)).thenReturn(User.builder().id(1L).username(username).build());
+        when(orderRepository.findIdsByUserIdBefore(1L, 9L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(8L, 6L));
+
+        var response = controller.getOrdersForUser(username, 9L, 2);
+
+        assertEquals("6", response.getHeaders().getFirst(PagingHeaders.NEXT_CURSOR));
+    }
+
+    @Test
+    public void getOrderSummariesForUserReturnsSummariesWithoutLoadingItems() {
+        var username = "maggie";
+        var summary = mock(OrderSummary.class);
+        when(userRepository.findByUsername(username)).thenReturn(User.builder().id(1L).username(username).build());
+        when(orderRepository.findSummariesByUserIdBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 20))).thenReturn(Collections.singletonList(summary));
 
-        var actualUserOrders = controller.getOrdersForUser(username).getBody();
+        var summaries = controller.getOrderSummariesForUser(username, Long.MAX_VALUE, 20).getBody();
 
-        assertEquals(expectedUserOrders, actualUserOrders);
+        assertEquals(Collections.singletonList(summary), summaries);
     }
 
     @Test
     public void getOrdersForUserReturnsNotFoundStatusWhenUserNotFound() {
         when(userRepository.findByUsername(anyString())).thenReturn(null);
 
-        var statusCode = controller.getOrdersForUser("username").getStatusCode();
+        var statusCode = controller.getOrdersForUser("username", Long.MAX_VALUE, 20).getStatusCode();
 
         assertEquals(HttpStatus.NOT_FOUND, statusCode);
     }
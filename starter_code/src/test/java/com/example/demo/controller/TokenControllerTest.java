@@ -0,0 +1,49 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.security.SecurityConstants;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenControllerTest {
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+
+    private TokenController controller;
+
+    @Before
+    public void init() {
+        controller = new TokenController(jwtTokenProvider);
+    }
+
+    @Test
+    public void refreshReturnsAccessTokenForTheRefreshTokenSubject() {
+        var refreshToken = jwtTokenProvider.createRefreshToken("maggie");
+
+        var response = controller.refresh(refreshToken);
+
+        var header = response.getHeaders().getFirst(SecurityConstants.HEADER_STRING);
+        var accessToken = jwtTokenProvider.verifyAccessToken(header.replace(SecurityConstants.TOKEN_PREFIX, ""));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("maggie", accessToken.getSubject());
+    }
+
+    @Test
+    public void refreshReturnsUnauthorizedStatusForAnAccessToken() {
+        var accessToken = jwtTokenProvider.createAccessToken("maggie");
+
+        var statusCode = controller.refresh(accessToken).getStatusCode();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, statusCode);
+    }
+
+    @Test
+    public void refreshReturnsUnauthorizedStatusForAMalformedToken() {
+        var statusCode = controller.refresh("not a token").getStatusCode();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, statusCode);
+    }
+}
@@ -6,12 +6,16 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.service.UserLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.var;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
@@ -20,6 +24,8 @@ import java.util.Optional;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -28,11 +34,13 @@ public class UserControllerTest {
     @Mock private CartRepository cartRepository;
     @Mock private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+    private UserLookupCache userLookupCache;
     private UserController controller;
 
     @Before
     public void init() {
-        controller = new UserController(userRepository, cartRepository, bCryptPasswordEncoder);
+        userLookupCache = new UserLookupCache(userRepository, 100, new SimpleMeterRegistry());
+        controller = new UserController(userRepository, userLookupCache, cartRepository, bCryptPasswordEncoder);
         when(cartRepository.save(any())).thenReturn(new Cart());
     }
 
@@ -50,8 +58,9 @@ public class UserControllerTest {
     @Test
     public void findByUsernameReturnsUserWithTheUserName() {
         var username = "maggie";
-        var expectedUser = User.builder().username(username).password("password").build();
+        var expectedUser = User.builder().id(1L).username(username).password("password").build();
         when(userRepository.findByUsername(username)).thenReturn(expectedUser);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(expectedUser));
 
         var actualUser = controller.findByUserName(username).getBody();
 
@@ -98,4 +107,29 @@ public class UserControllerTest {
         assertEquals(userRequest.getUsername(), user.getUsername());
         assertEquals(encryptedPassword, user.getPassword());
     }
+
+    @Test
+    public void createUserReturnsServiceUnavailableWhenPasswordHashingIsAtCapacity() {
+        var password = "1234567890";
+        var userRequest = CreateUserRequest.builder().username("maggie").password(password).confirmPassword(password).build();
+        when(bCryptPasswordEncoder.encode(password)).thenThrow(new PasswordHashingRejectedException(2));
+
+        var response = controller.createUser(userRequest);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void createUserInvalidatesTheCachedLookupForTheUsername() {
+        var password = "1234567890";
+        var userRequest = CreateUserRequest.builder().username("maggie").password(password).confirmPassword(password).build();
+        when(userRepository.findByUsername("maggie")).thenReturn(User.builder().id(1L).username("maggie").build());
+        userLookupCache.find("maggie");
+
+        controller.createUser(userRequest);
+        userLookupCache.find("maggie");
+
+        verify(userRepository, times(2)).findByUsername("maggie");
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.demo.datasource;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.var;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.InvalidIsolationLevelException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DataSourceConfigTest {
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    public void repositoryReadsUseTheReadPoolAndWritesTheWritePool() {
+        long reads = acquisitions("read");
+        long writes = acquisitions("write");
+
+        itemRepository.findAll();
+        itemRepository.findByName("Round Widget");
+
+        assertEquals(reads + 2, acquisitions("read"));
+        assertEquals(writes, acquisitions("write"));
+
+        userRepository.save(User.builder().username("routed-writer").password("secret").build());
+
+        assertEquals(reads + 2, acquisitions("read"));
+        assertEquals(writes + 1, acquisitions("write"));
+    }
+
+    @Test(expected = InvalidIsolationLevelException.class)
+    public void aNonDefaultIsolationLevelFailsInsteadOfBeingIgnored() {
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+
+        transaction.execute(status -> itemRepository.count());
+    }
+
+    @Test
+    public void readOnlyTransactionsStillNeverFlush() {
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        var flushMode = transaction.execute(status -> entityManager.unwrap(Session.class).getHibernateFlushMode());
+
+        assertEquals(FlushMode.MANUAL, flushMode);
+    }
+
+    private long acquisitions(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.datasource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReadWriteRoutingDataSourceTest {
+    private final HikariDataSource write = pool("primary");
+    private final HikariDataSource read = pool("replica");
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(write, read);
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToTheReadPoolAndEverythingElseToTheWritePool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals("REPLICA", readOnly.execute(status -> database()));
+        assertEquals("PRIMARY", new TransactionTemplate(transactionManager).execute(status -> database()));
+        assertEquals("PRIMARY", database());
+    }
+
+    @Test
+    public void closeShutsDownBothPools() {
+        database();
+
+        dataSource.close();
+
+        assertTrue(write.isClosed());
+        assertTrue(read.isClosed());
+    }
+
+    @Test
+    public void routedJpaReadsLeaveNoConnectionResetWarning() {
+        ListAppender<ILoggingEvent> warnings = new ListAppender<>();
+        Logger dialectLogger = (Logger) LoggerFactory.getLogger(HibernateJpaDialect.class);
+        warnings.start();
+        dialectLogger.addAppender(warnings);
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter();
+        DataSourceConfig.unpreparedJpaConnections().postProcessBeforeInitialization(adapter, "jpaVendorAdapter");
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(adapter);
+        factory.setPackagesToScan(getClass().getPackage().getName());
+        factory.getJpaPropertyMap().put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        // closing a JCache region factory would close the caches of every other context in this JVM
+        factory.getJpaPropertyMap().put("hibernate.cache.use_second_level_cache", "false");
+        factory.getJpaPropertyMap().put("hibernate.cache.use_query_cache", "false");
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            readOnly.setReadOnly(true);
+
+            Object database = readOnly.execute(status -> EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                    .createNativeQuery("call database()").getSingleResult());
+
+            assertEquals("REPLICA", database);
+            assertTrue(warnings.list.isEmpty());
+        } finally {
+            dialectLogger.detachAppender(warnings);
+            factory.destroy();
+        }
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("call database()", String.class);
+    }
+
+    private static HikariDataSource pool(String database) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPoolName(database);
+        return pool;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CountingAsyncAppenderTest {
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch taken = new CountDownLatch(1);
+    private final CountingAsyncAppender appender = new CountingAsyncAppender();
+    private AppenderBase<ILoggingEvent> slow;
+
+    @Before
+    public void setUp() {
+        slow = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                taken.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+
+        appender.setContext(context);
+        appender.setQueueSize(1);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(slow);
+        appender.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    public void fullQueueDropsAndCountsInsteadOfBlocking() throws Exception {
+        appender.doAppend(event("taken by the worker"));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        appender.doAppend(event("queued"));
+
+        appender.doAppend(event("dropped"));
+        appender.doAppend(event("dropped"));
+
+        assertEquals(2, appender.getDroppedCount());
+    }
+
+    @Test
+    public void discardingThresholdCountsDiscardedEvents() throws Exception {
+        appender.stop();
+        CountingAsyncAppender thresholded = new CountingAsyncAppender();
+        thresholded.setContext(context);
+        thresholded.setQueueSize(4);
+        thresholded.setDiscardingThreshold(5);
+        thresholded.addAppender(slow);
+        thresholded.start();
+        try {
+            thresholded.doAppend(event("info is discardable once the queue is past the threshold"));
+            assertEquals(1, thresholded.getDroppedCount());
+        } finally {
+            thresholded.stop();
+        }
+    }
+
+    private ILoggingEvent event(String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.INFO, message, null, null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.metrics;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class HibernateCacheMetricsTest {
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void repeatedFindByIdIsServedFromTheItemRegionWithoutASelect() {
+        Item item = itemRepository.save(item("Cached Widget", "1.00"));
+        itemRepository.findById(item.getId());
+        double hits = requests(Item.CACHE_REGION, "hit");
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals("1.00", itemRepository.findById(item.getId()).get().getPrice().toPlainString());
+
+        assertEquals(hits + 1, requests(Item.CACHE_REGION, "hit"), 0);
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("hibernate.cache.region.hit.ratio").tag("region", Item.CACHE_REGION).gauge().value() > 0);
+    }
+
+    @Test
+    public void findByNameResultsAreCachedUntilAnItemIsWritten() {
+        Item item = itemRepository.save(item("Query Cached Widget", "2.00"));
+        itemRepository.findByName("Query Cached Widget");
+        double hits = requests(Item.BY_NAME_CACHE_REGION, "hit");
+        double misses = requests(Item.BY_NAME_CACHE_REGION, "miss");
+
+        assertEquals(1, itemRepository.findByName("Query Cached Widget").size());
+        assertEquals(hits + 1, requests(Item.BY_NAME_CACHE_REGION, "hit"), 0);
+
+        item.setPrice(new BigDecimal("2.50"));
+        itemRepository.save(item);
+
+        assertEquals("2.50", itemRepository.findByName("Query Cached Widget").get(0).getPrice().toPlainString());
+        assertEquals(misses + 1, requests(Item.BY_NAME_CACHE_REGION, "miss"), 0);
+        assertEquals("2.50", itemRepository.findById(item.getId()).get().getPrice().toPlainString());
+    }
+
+    private double requests(String region, String result) {
+        return meterRegistry.get("hibernate.cache.region.requests").tag("region", region).tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static Item item(String name, String price) {
+        return Item.builder().name(name).price(new BigDecimal(price)).description("cache test").build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryCountFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountFilter filter = new QueryCountFilter(registry);
+    private final QueryCountInspector inspector = new QueryCountInspector();
+
+    @Test
+    public void doFilterRecordsTheStatementsOfEachRequestUnderItsUriPattern() throws Exception {
+        inspector.inspect("select leftover from an earlier request");
+
+        filter.doFilter(request("/api/item/1"), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/item/{id}");
+            inspector.inspect("select item");
+            inspector.inspect("select cart");
+        });
+
+        var summary = registry.get("http.server.requests.queries").tag("uri", "/api/item/{id}").tag("method", "GET").summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount(), 0);
+    }
+
+    @Test
+    public void doFilterFallsBackToTheServletPathForRequestsHandledByFilters() throws Exception {
+        filter.doFilter(request("/login"), new MockHttpServletResponse(), (req, res) -> inspector.inspect("select user"));
+
+        assertEquals(1.0, registry.get("http.server.requests.queries").tag("uri", "/login").summary().totalAmount(), 0);
+    }
+
+    @Test
+    public void doFilterTagsUnmatchedPathsAsUnknown() throws Exception {
+        filter.doFilter(request("/random/aaa"), new MockHttpServletResponse(), (req, res) -> { });
+        filter.doFilter(request("/random/bbb"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(1, registry.get("http.server.requests.queries").summaries().size());
+        assertEquals(2, registry.get("http.server.requests.queries").tag("uri", "UNKNOWN").summary().count());
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
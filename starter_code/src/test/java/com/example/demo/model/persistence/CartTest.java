@@ -0,0 +1,65 @@
+package com.example.demo.model.persistence;
+
+import lombok.var;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CartTest {
+
+    @Test
+    public void addItemFindsTheLineByItemIdEvenFromAnotherInstance() {
+        var cart = new Cart();
+        var line = cart.addItem(Item.builder().id(1L).name("cup").price(BigDecimal.ONE).build(), 1);
+
+        var same = cart.addItem(Item.builder().id(1L).name("renamed cup").price(BigDecimal.TEN).build(), 2);
+
+        assertSame(line, same);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(3, line.getQuantity());
+    }
+
+    @Test
+    public void linesAreFoundAfterTheItemsAreReplacedOrEditedDirectly() {
+        var cart = new Cart();
+        var cup = Item.builder().id(1L).price(BigDecimal.ONE).build();
+        var plate = Item.builder().id(2L).price(BigDecimal.ONE).build();
+        cart.addItem(cup, 1);
+        var lines = new ArrayList<CartItem>();
+        lines.add(CartItem.builder().cart(cart).item(plate).quantity(1).unitPriceMinorUnits(100).build());
+
+        cart.setItems(lines);
+        cart.addItem(plate, 1);
+        cart.getItems().add(CartItem.builder().cart(cart).item(cup).quantity(1).unitPriceMinorUnits(100).build());
+        cart.removeItem(cup, 1);
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(2, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void removingTheLastUnitDropsTheLine() {
+        var cart = new Cart();
+        var cup = Item.builder().id(1L).price(BigDecimal.ONE).build();
+        cart.addItem(cup, 2);
+
+        cart.removeItem(cup, 5);
+
+        assertTrue(cart.getItems().isEmpty());
+        assertEquals(0, cart.getTotalMinorUnits());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void lineQuantityOverflowFailsInsteadOfWrapping() {
+        var cart = new Cart();
+        var cup = Item.builder().id(1L).price(BigDecimal.ZERO).build();
+        cart.addItem(cup, Integer.MAX_VALUE);
+
+        cart.addItem(cup, 1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.model.persistence;
+
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.var;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class CatalogRevisionListenerTest {
+    @Autowired private ItemRepository itemRepository;
+
+    @Test
+    public void movesOncePerTransactionThatWritesItems() {
+        var before = itemRepository.catalogRevision();
+
+        itemRepository.findAll();
+        assertEquals(before, itemRepository.catalogRevision());
+
+        itemRepository.saveAndFlush(widget("first"));
+        itemRepository.saveAndFlush(widget("second"));
+        var item = itemRepository.findById(1L).get();
+        item.setName("Renamed Widget");
+        itemRepository.flush();
+
+        assertEquals(before + 1, (long) itemRepository.catalogRevision());
+    }
+
+    @Test
+    public void rollsBackWithTheItemsAndMovesAgainInTheNextTransaction() {
+        var before = itemRepository.catalogRevision();
+        itemRepository.saveAndFlush(widget("rolled back"));
+        TestTransaction.end();
+
+        TestTransaction.start();
+        assertEquals(before, itemRepository.catalogRevision());
+        itemRepository.saveAndFlush(widget("again"));
+
+        assertEquals(before + 1, (long) itemRepository.catalogRevision());
+    }
+
+    private static Item widget(String name) {
+        return Item.builder().name(name).price(BigDecimal.ONE).description(name).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.model.pricing;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.UserOrder;
+import lombok.var;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MoneyTest {
+
+    @Test
+    public void convertsBetweenDecimalsAndMinorUnitsAtTheCurrencyScale() {
+        assertEquals(299, Money.toMinorUnits(new BigDecimal("2.99")));
+        assertEquals(500, Money.toMinorUnits(new BigDecimal("5")));
+        assertEquals(200, Money.toMinorUnits(new BigDecimal("1.995")));
+        assertEquals(0, Money.toMinorUnits(null));
+        assertEquals(new BigDecimal("-12.05"), Money.toDecimal(-1205));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void overflowFailsInsteadOfWrapping() {
+        Money.times(Long.MAX_VALUE / 2, 3);
+    }
+
+    @Test
+    public void converterKeepsTheColumnDecimalAndReadsMissingTotalsAsZero() {
+        var converter = new MinorUnitsConverter();
+
+        assertEquals(new BigDecimal("0.50"), converter.convertToDatabaseColumn(50L));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertEquals(Long.valueOf(0), converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    public void cartAndOrderTotalsFollowLineQuantities() {
+        var cart = new Cart();
+        var widget = Item.builder().id(1L).price(new BigDecimal("0.10")).build();
+        var gadget = Item.builder().id(2L).price(new BigDecimal("0.20")).build();
+
+        cart.addItem(widget, 3);
+        cart.addItem(gadget, 2);
+        cart.removeItem(widget, 1);
+
+        assertEquals(new BigDecimal("0.60"), cart.getTotal());
+        assertEquals(60, cart.linesTotalMinorUnits());
+        assertEquals(new BigDecimal("0.10"), cart.getItems().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("0.60"), UserOrder.createFromCart(cart).getTotal());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.var;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthenticationVerificationFilterTest {
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private VerifiedTokenCache verifiedTokenCache;
+
+    @Test
+    public void eachAuthenticatedRequestLooksTheTokenUpOnce() throws Exception {
+        var header = SecurityConstants.TOKEN_PREFIX + jwtTokenProvider.createAccessToken("maggie");
+        var before = lookups();
+
+        mockMvc.perform(get("/api/item").header(SecurityConstants.HEADER_STRING, header)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/item").header(SecurityConstants.HEADER_STRING, header)).andExpect(status().isOk());
+
+        assertEquals(2, lookups() - before);
+    }
+
+    @Test
+    public void refreshSucceedsWhileTheExpiredAccessTokenIsStillSent() throws Exception {
+        mockMvc.perform(post(SecurityConstants.REFRESH_URL)
+                .header(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + expiredAccessToken("maggie"))
+                .header(SecurityConstants.REFRESH_HEADER_STRING, jwtTokenProvider.createRefreshToken("maggie")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SecurityConstants.HEADER_STRING));
+    }
+
+    @Test
+    public void expiredOrMalformedAccessTokensGetUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/item").header(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + expiredAccessToken("maggie")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/item").header(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + "junk"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static String expiredAccessToken(String username) {
+        return JWT.create()
+                .withSubject(username)
+                .withClaim(SecurityConstants.TOKEN_TYPE_CLAIM, JwtTokenProvider.ACCESS_TOKEN)
+                .withExpiresAt(new Date(System.currentTimeMillis() - 60_000))
+                .sign(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()));
+    }
+
+    private long lookups() {
+        return verifiedTokenCache.getHitCount() + verifiedTokenCache.getMissCount();
+    }
+}
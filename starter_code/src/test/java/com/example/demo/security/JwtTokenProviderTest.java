@@ -0,0 +1,28 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import lombok.var;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JwtTokenProviderTest {
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+
+    @Test
+    public void verifyAccessTokenReturnsTheSubject() {
+        var token = jwtTokenProvider.createAccessToken("maggie");
+
+        assertEquals("maggie", jwtTokenProvider.verifyAccessToken(token).getSubject());
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void verifyAccessTokenRejectsRefreshTokens() {
+        jwtTokenProvider.verifyAccessToken(jwtTokenProvider.createRefreshToken("maggie"));
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void verifyRefreshTokenRejectsAccessTokens() {
+        jwtTokenProvider.verifyRefreshToken(jwtTokenProvider.createAccessToken("maggie"));
+    }
+}
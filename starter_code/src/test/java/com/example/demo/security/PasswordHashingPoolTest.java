@@ -0,0 +1,88 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PasswordHashingPoolTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingPool pool;
+
+    @Before
+    public void init() {
+        pool = new PasswordHashingPool(1, 1, 3, meterRegistry);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void encodeReturnsResultAndRecordsLatency() {
+        var result = pool.encode(() -> "hash");
+
+        assertEquals("hash", result);
+        assertEquals(1, meterRegistry.get("password.hashing.latency").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    public void latencyTimersAreRegisteredUpFront() {
+        assertEquals(0, meterRegistry.get("password.hashing.latency").tag("operation", "encode").timer().count());
+        assertEquals(0, meterRegistry.get("password.hashing.latency").tag("operation", "matches").timer().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void matchesRethrowsFailuresFromTheWorker() {
+        pool.matches(() -> {
+            throw new IllegalArgumentException("bad hash");
+        });
+    }
+
+    @Test
+    public void encodeRejectsWorkWhenTheQueueIsFull() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = CompletableFuture.supplyAsync(() -> pool.encode(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        var queued = CompletableFuture.supplyAsync(() -> pool.encode(() -> "queued"));
+        while (pool.getQueueDepth() < 1) {
+            Thread.sleep(1);
+        }
+
+        try {
+            pool.encode(() -> "rejected");
+            fail("expected the pool to reject work once its queue is full");
+        } catch (PasswordHashingRejectedException e) {
+            assertEquals(3, e.getRetryAfterSeconds());
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count(), 0.0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
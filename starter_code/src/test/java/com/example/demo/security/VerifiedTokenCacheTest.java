@@ -0,0 +1,107 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class VerifiedTokenCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private VerifiedTokenCache cache;
+
+    @Before
+    public void init() {
+        cache = new VerifiedTokenCache(2, now::get);
+    }
+
+    @Test
+    public void getSubjectReturnsSubjectOfCachedToken() {
+        cache.put("token", "maggie", new Date(2_000));
+
+        var subject = cache.getSubject("token");
+
+        assertEquals("maggie", subject);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void getSubjectReturnsNullForUnknownToken() {
+        cache.put("token", "maggie", new Date(2_000));
+
+        var subject = cache.getSubject("other token");
+
+        assertNull(subject);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void getSubjectEvictsTokenOnceItExpires() {
+        cache.put("token", "maggie", new Date(2_000));
+        now.set(2_000);
+
+        var subject = cache.getSubject("token");
+
+        assertNull(subject);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void putIgnoresAlreadyExpiredTokens() {
+        cache.put("token", "maggie", new Date(1_000));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void putNeverGrowsPastMaxSize() {
+        cache.put("first", "a", new Date(5_000));
+        cache.put("second", "b", new Date(5_000));
+        cache.put("third", "c", new Date(5_000));
+
+        assertEquals(2, cache.size());
+        assertEquals("c", cache.getSubject("third"));
+    }
+
+    @Test
+    public void putStaysBoundedUnderAStreamOfNewTokens() {
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("token " + i, "user " + i, new Date(5_000));
+        }
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void putEvictsExpiredTokensBeforeLiveOnesWhenFull() {
+        cache.put("short lived", "a", new Date(1_500));
+        cache.put("long lived", "b", new Date(5_000));
+        now.set(1_500);
+
+        cache.put("new", "c", new Date(5_000));
+
+        assertEquals("b", cache.getSubject("long lived"));
+        assertEquals("c", cache.getSubject("new"));
+    }
+
+    @Test
+    public void bindToExportsHitsMissesAndSize() {
+        var registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.put("token", "maggie", new Date(2_000));
+        cache.getSubject("token");
+        cache.getSubject("other token");
+
+        assertEquals(1.0, registry.get("jwt.cache.requests").tag("result", "hit").functionCounter().count(), 0);
+        assertEquals(1.0, registry.get("jwt.cache.requests").tag("result", "miss").functionCounter().count(), 0);
+        assertEquals(1.0, registry.get("jwt.cache.size").gauge().value(), 0);
+    }
+}
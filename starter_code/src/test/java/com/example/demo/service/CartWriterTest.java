@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import lombok.var;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class CartWriterTest {
+    private final CartWriter cartWriter = new CartWriter(mock(PlatformTransactionManager.class), 3);
+
+    @Test
+    public void writeRetriesAVersionConflictFromAFreshRun() {
+        var attempts = new AtomicInteger();
+
+        var result = cartWriter.write(1L, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("stale cart");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void writeGivesUpAfterTheLastAttempt() {
+        var attempts = new AtomicInteger();
+
+        try {
+            cartWriter.write(1L, () -> {
+                attempts.incrementAndGet();
+                throw new OptimisticLockingFailureException("stale cart");
+            });
+            fail("expected the conflict to propagate");
+        } catch (OptimisticLockingFailureException expected) {
+            assertEquals(3, attempts.get());
+        }
+    }
+
+    @Test
+    public void writeDoesNotBlockOtherUsersWhileOneUserIsWriting() throws Exception {
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var writer = new Thread(() -> cartWriter.write(1L, () -> {
+            holding.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        writer.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        var otherUserRan = new AtomicBoolean();
+        var other = new Thread(() -> cartWriter.write(2L, () -> {
+            otherUserRan.set(true);
+            return null;
+        }));
+        other.start();
+        other.join(TimeUnit.SECONDS.toMillis(5));
+        var sameUserRan = new AtomicBoolean();
+        var same = new Thread(() -> cartWriter.write(1L, () -> {
+            sameUserRan.set(true);
+            return null;
+        }));
+        same.start();
+        same.join(200);
+
+        assertTrue(otherUserRan.get());
+        assertFalse(sameUserRan.get());
+        release.countDown();
+        same.join(TimeUnit.SECONDS.toMillis(5));
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        assertTrue(sameUserRan.get());
+    }
+
+    @Test
+    public void writeNeverMakesAnotherUserWaitForTheLockedOne() throws Exception {
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var writer = new Thread(() -> cartWriter.write(1L, () -> {
+            holding.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        writer.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        var othersRan = new AtomicInteger();
+        var others = new Thread(() -> {
+            for (long userId = 2; userId <= 1_000; userId++) {
+                cartWriter.write(userId, othersRan::incrementAndGet);
+            }
+        });
+        others.start();
+        others.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(999, othersRan.get());
+        release.countDown();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
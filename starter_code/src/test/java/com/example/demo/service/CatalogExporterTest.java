@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.var;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CatalogExporterTest {
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the context is shared with tests that empty the item table, so the seed rows may be gone
+    @Before
+    public void init() {
+        itemRepository.saveAndFlush(Item.builder().name("Exported Cup").price(BigDecimal.ONE).description("a cup").build());
+        itemRepository.saveAndFlush(Item.builder().name("Exported Plate").price(BigDecimal.TEN).description("a plate").build());
+    }
+
+    @Test
+    public void writeNdjsonWritesOneItemPerLineInIdOrder() throws Exception {
+        var exporter = new CatalogExporter(itemRepository, objectMapper);
+        var out = new ByteArrayOutputStream();
+
+        exporter.writeNdjson(out);
+
+        var lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(itemRepository.count(), lines.length);
+        long previousId = Long.MIN_VALUE;
+        for (var line : lines) {
+            long id = objectMapper.readTree(line).get("id").asLong();
+            assertTrue(id > previousId);
+            previousId = id;
+        }
+        assertEquals("Exported Cup", objectMapper.readTree(lines[lines.length - 2]).get("name").asText());
+        assertEquals("Exported Plate", objectMapper.readTree(lines[lines.length - 1]).get("name").asText());
+    }
+
+    @Test
+    public void writeNdjsonNeverLoadsItemsAsEntities() throws Exception {
+        var exporter = new CatalogExporter(itemRepository, objectMapper);
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        exporter.writeNdjson(new ByteArrayOutputStream());
+
+        assertEquals(0, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class CatalogImporterTest {
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ItemChanges itemChanges;
+
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private CatalogImporter importer;
+
+    @TestConfiguration
+    static class ItemChanges {
+        final List<ItemChangedEvent> published = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(ItemChangedEvent event) {
+            published.add(event);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        itemChanges.published.clear();
+        importer = new CatalogImporter(entityManager, transactionManager, new ObjectMapper(), publisher, 2);
+    }
+
+    @Test
+    public void importsCsvRowsInBatchesWithSequenceIds() throws Exception {
+        var csv = "name,price,description\n"
+                + "Csv Widget 1,1.50,plain\n"
+                + "\"Csv Widget 2\",2.25,\"quoted, with a comma\"\n"
+                + "Csv Widget 3,3,three\n";
+
+        var result = importer.importItems(input(csv), CatalogImporter.Format.CSV);
+
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getRejected());
+        var second = itemRepository.findByName("Csv Widget 2").get(0);
+        assertEquals("quoted, with a comma", second.getDescription());
+        assertEquals(new BigDecimal("2.25"), second.getPrice());
+        assertTrue(second.getId() >= 100);
+    }
+
+    @Test
+    public void importsNdjsonAndSkipsInvalidRows() throws Exception {
+        var ndjson = "{\"name\":\"Json Widget 1\",\"price\":4.99,\"description\":\"one\",\"id\":7}\n"
+                + "{\"name\":\"Json Widget 2\",\"description\":\"no price\"}\n"
+                + "{\"name\":\"Json Widget 3\",\"price\":\"not a number\",\"description\":\"bad price\"}\n"
+                + "{\"name\":\"Json Widget 4\",\"price\":-1,\"description\":\"negative\"}\n"
+                + "{\"name\":\"Json Widget 5\",\"price\":\"0.10\",\"description\":\"five\"}\n";
+
+        var result = importer.importItems(input(ndjson), CatalogImporter.Format.NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(new BigDecimal("4.99"), itemRepository.findByName("Json Widget 1").get(0).getPrice());
+        assertEquals(1, itemRepository.findByName("Json Widget 5").size());
+        assertTrue(itemRepository.findByName("Json Widget 2").isEmpty());
+    }
+
+    @Test
+    public void skipsAMalformedNdjsonLineAndKeepsImporting() throws Exception {
+        var ndjson = "{\"name\":\"Json Widget 6\",\"price\":1,\"description\":\"six\"}\n"
+                + "{\"name\":\"Json Widget 7\",\"price\":\n"
+                + "{\"name\":\"Json Widget 8\",\"price\":\"not\",\"description\":[1, 2]}\n"
+                + "not json at all\n"
+                + "{\"name\":\"Json Widget 9\",\"price\":9,\"description\":\"nine\"}\n";
+
+        var result = importer.importItems(input(ndjson), CatalogImporter.Format.NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(1, itemRepository.findByName("Json Widget 6").size());
+        assertEquals(1, itemRepository.findByName("Json Widget 9").size());
+    }
+
+    @Test
+    public void skipsAMalformedCsvRowAndKeepsImporting() throws Exception {
+        var csv = "name,price,description\n"
+                + "Csv Widget 4,4,four\n"
+                + "Csv Widget 5,5,five,with,too,many,columns\n"
+                + "Csv Widget 6,6,six\n";
+
+        var result = importer.importItems(input(csv), CatalogImporter.Format.CSV);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, itemRepository.findByName("Csv Widget 6").size());
+        assertTrue(itemRepository.findByName("Csv Widget 5").isEmpty());
+    }
+
+    @Test
+    public void importPublishesOneCatalogChangeInsteadOfOneEventPerItem() throws Exception {
+        var csv = "name,price,description\n"
+                + "Csv Widget 7,7,seven\n"
+                + "Csv Widget 8,8,eight\n"
+                + "Csv Widget 9,9,nine\n";
+
+        importer.importItems(input(csv), CatalogImporter.Format.CSV);
+        itemRepository.saveAndFlush(Item.builder().name("Saved Widget").price(BigDecimal.ONE).description("saved").build());
+
+        verify(publisher).publishEvent(new CatalogChangedEvent(3));
+        verifyNoMoreInteractions(publisher);
+        assertEquals(1, itemChanges.published.size());
+        assertEquals("Saved Widget", itemChanges.published.get(0).getItem().getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatRejectsUnknownExtensions() {
+        CatalogImporter.Format.of("xml");
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class CatalogSnapshotFileTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private EntityManager entityManager;
+
+    private Path path;
+    private CatalogSnapshotFile snapshotFile;
+
+    @Before
+    public void setUp() {
+        path = folder.getRoot().toPath().resolve("catalog.snapshot");
+        snapshotFile = new CatalogSnapshotFile(itemRepository, path.toString());
+    }
+
+    @Test
+    public void readsBackWhatWasWrittenWhileTheCatalogIsUnchanged() throws Exception {
+        itemRepository.save(Item.builder().name("Snapshot Widget é").price(new BigDecimal("12345678901234.56"))
+                .description("multi-byte ✓").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        var written = snapshotFile.write();
+        var read = snapshotFile.read();
+
+        assertTrue(read.isPresent());
+        assertEquals(written, read.get().size());
+        var expected = itemRepository.findAll();
+        for(int i = 0; i < expected.size(); i++) {
+            assertItemEquals(expected.get(i), read.get().get(i));
+        }
+    }
+
+    @Test
+    public void ignoresTheFileOnceTheCatalogChanged() throws Exception {
+        snapshotFile.write();
+
+        var item = itemRepository.findById(1L).get();
+        item.setPrice(item.getPrice().add(BigDecimal.ONE));
+        itemRepository.flush();
+
+        assertFalse(snapshotFile.read().isPresent());
+    }
+
+    @Test
+    public void ignoresTheFileOnceAnItemWasAdded() throws Exception {
+        snapshotFile.write();
+
+        itemRepository.saveAndFlush(Item.builder().name("New Widget").price(BigDecimal.ONE).description("new").build());
+
+        assertFalse(snapshotFile.read().isPresent());
+    }
+
+    @Test
+    public void ignoresTheFileOnceAnItemWasRemoved() throws Exception {
+        snapshotFile.write();
+
+        itemRepository.deleteById(2L);
+        itemRepository.flush();
+
+        assertFalse(snapshotFile.read().isPresent());
+    }
+
+    @Test
+    public void ignoresMissingOrTruncatedFiles() throws Exception {
+        assertFalse(snapshotFile.read().isPresent());
+
+        snapshotFile.write();
+        var bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertFalse(snapshotFile.read().isPresent());
+    }
+
+    @Test
+    public void isDisabledWithoutAPath() {
+        var disabled = new CatalogSnapshotFile(itemRepository, "");
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.read().isPresent());
+    }
+
+    private static void assertItemEquals(Item expected, Item actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+}
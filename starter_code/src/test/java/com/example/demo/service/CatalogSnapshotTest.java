@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CatalogSnapshotTest {
+    @Mock private ItemRepository itemRepository;
+
+    private CatalogSnapshot catalogSnapshot;
+
+    @Before
+    public void init() {
+        catalogSnapshot = new CatalogSnapshot(itemRepository, new ObjectMapper(), false);
+    }
+
+    @Test
+    public void getReusesTheSnapshotWhileTheCatalogIsUnchanged() {
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(Item.builder().id(1L).name("item").build()));
+
+        var first = catalogSnapshot.get();
+        var second = catalogSnapshot.get();
+
+        assertSame(first, second);
+        assertNull(first.getGzip());
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void getRebuildsTheSnapshotAfterAnItemChanges() {
+        var item = Item.builder().id(1L).name("item").build();
+        var added = Item.builder().id(2L).name("added").build();
+        when(itemRepository.findAll())
+                .thenReturn(Collections.singletonList(item))
+                .thenReturn(Arrays.asList(item, added));
+        var before = catalogSnapshot.get();
+
+        catalogSnapshot.onItemChanged(new ItemChangedEvent(added, false));
+        var after = catalogSnapshot.get();
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        verify(itemRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void getRebuildsTheSnapshotAfterAnImport() {
+        var item = Item.builder().id(1L).name("item").build();
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(item));
+        var before = catalogSnapshot.get();
+
+        catalogSnapshot.onCatalogChanged(new CatalogChangedEvent(1));
+
+        assertNotEquals(before.getVersion(), catalogSnapshot.get().getVersion());
+        verify(itemRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void primeServesLoadedItemsUntilTheCatalogChanges() {
+        var item = Item.builder().id(1L).name("item").build();
+        var version = catalogSnapshot.getVersion();
+
+        catalogSnapshot.onItemChanged(new ItemChangedEvent(item, false));
+        catalogSnapshot.prime(version, Collections.singletonList(item));
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(item));
+        catalogSnapshot.get();
+
+        verify(itemRepository, times(1)).findAll();
+        catalogSnapshot.prime(catalogSnapshot.getVersion(), Collections.singletonList(item));
+        catalogSnapshot.get();
+        verify(itemRepository, times(1)).findAll();
+    }
+}
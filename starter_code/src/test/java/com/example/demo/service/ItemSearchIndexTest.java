@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.CatalogChangedEvent;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ItemSearchIndexTest {
+    @Mock private ItemRepository itemRepository;
+
+    private ItemSearchIndex index;
+
+    @Before
+    public void init() {
+        when(itemRepository.findAll()).thenReturn(Arrays.asList(
+                item(1L, "Round Widget", "A widget that is round"),
+                item(2L, "Square Widget", "A widget that is square"),
+                item(3L, "Widgetizer", "Turns things into widgets")));
+        index = new ItemSearchIndex(itemRepository);
+    }
+
+    @Test
+    public void searchMatchesTermPrefixesAndRanksExactNameMatchesFirst() {
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(index.search("widget", 10)));
+        assertEquals(Arrays.asList(3L), ids(index.search("widgetiz", 10)));
+    }
+
+    @Test
+    public void searchRequiresEveryTermAndIgnoresCaseAndPunctuation() {
+        assertEquals(Arrays.asList(2L), ids(index.search("WIDGET, squ", 10)));
+        assertTrue(index.search("widget triangle", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void searchLoadsTheCatalogOnceAndFollowsItemChanges() {
+        index.search("widget", 10);
+
+        index.onItemChanged(new ItemChangedEvent(item(2L, "Square Gadget", "A gadget"), false));
+        index.onItemChanged(new ItemChangedEvent(item(4L, "Round Gadget", "Also round"), false));
+        index.onItemChanged(new ItemChangedEvent(item(1L, "Round Widget", ""), true));
+
+        assertEquals(Arrays.asList(3L), ids(index.search("widget", 10)));
+        assertEquals(Arrays.asList(2L, 4L), ids(index.search("gadget", 10)));
+        assertTrue(index.search("round widget", 10).isEmpty());
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void searchRereadsTheCatalogAfterAnImport() {
+        index.search("widget", 10);
+        when(itemRepository.findAllUnmanaged()).thenReturn(Arrays.asList(
+                item(1L, "Round Widget", "A widget that is round"),
+                item(2L, "Square Widget", "A widget that is square"),
+                item(3L, "Widgetizer", "Turns things into widgets"),
+                item(4L, "Imported Widget", "Came in with the import")));
+
+        index.onCatalogChanged(new CatalogChangedEvent(1));
+
+        assertEquals(Arrays.asList(4L), ids(index.search("imported", 10)));
+        assertEquals(Arrays.asList(1L, 2L, 4L, 3L), ids(index.search("widget", 10)));
+    }
+
+    @Test
+    public void searchHonoursTheLimit() {
+        assertEquals(Arrays.asList(1L, 2L), ids(index.search("widget", 2)));
+    }
+
+    @Test
+    public void searchReturnsTheBestRankedItemsOfABroadPrefixOverALargeCatalog() {
+        var catalog = new ArrayList<Item>();
+        for (long id = 1; id <= 20_000; id++) {
+            // every seventh item is an exact name match for "w", all the others only prefix matches
+            catalog.add(id % 7 == 0 ? item(id, "W " + id, "widget " + id) : item(id, "Widget " + id, "widget " + id));
+        }
+        when(itemRepository.findAll()).thenReturn(catalog);
+        index = new ItemSearchIndex(itemRepository);
+
+        assertEquals(Arrays.asList(7L, 14L, 21L, 28L, 35L), ids(index.search("w", 5)));
+        assertEquals(LongStream.rangeClosed(1, 100).map(i -> i * 7).boxed().collect(Collectors.toList()), ids(index.search("w", 100)));
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(index.search("widget", 3)));
+        assertTrue(index.search("w", 0).isEmpty());
+    }
+
+    @Test
+    public void searchNeverReturnsAnItemThatNoLongerMatchesWhileItChanges() throws Exception {
+        index.search("widget", 10);
+        var writer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                index.onItemChanged(new ItemChangedEvent(i % 2 == 0 ? item(1L, "Round Gadget", "A gadget") : item(1L, "Round Widget", "A widget"), false));
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            for (Item found : index.search("round widget", 10)) {
+                assertEquals("Round Widget", found.getName());
+            }
+        }
+        writer.join();
+    }
+
+    private static Item item(Long id, String name, String description) {
+        return Item.builder().id(id).name(name).description(description).price(BigDecimal.ONE).build();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import lombok.var;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderSubmissionPipelineTest {
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ItemRepository itemRepository;
+    @Autowired private OrderRepository orderRepository;
+
+    private OrderSubmissionPipeline pipeline;
+    private Cart cart;
+
+    @Before
+    public void init() {
+        var item = itemRepository.save(Item.builder().name("cup").description("red cup").price(BigDecimal.ONE).build());
+        var user = userRepository.save(User.builder().username("maggie").password("password").cart(new Cart()).build());
+        cart = user.getCart();
+        cart.setUser(user);
+        cart.addItem(item, 2);
+    }
+
+    @After
+    public void cleanUp() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        cartRepository.deleteAll();
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    public void submitWritesWaitingOrdersInOneTransactionAndCompletesEachWithItsId() throws Exception {
+        pipeline = new OrderSubmissionPipeline(entityManager, transactionManager, 50, 100, 1);
+        var results = new ArrayList<CompletableFuture<UserOrder>>();
+        for (int i = 0; i < 20; i++) {
+            results.add(pipeline.submit(UserOrder.createFromCart(cart)));
+        }
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        pipeline.start();
+        var ids = new HashSet<Long>();
+        for (var result : results) {
+            var order = result.get(10, TimeUnit.SECONDS);
+            assertNotNull(order.getId());
+            ids.add(order.getId());
+        }
+
+        assertEquals(20, ids.size());
+        assertEquals(1, statistics.getSuccessfulTransactionCount());
+        assertEquals(20, orderRepository.count());
+    }
+
+    @Test
+    public void submitFailsOnlyTheBadOrderOfABatch() throws Exception {
+        pipeline = new OrderSubmissionPipeline(entityManager, transactionManager, 50, 100, 1);
+        var good = pipeline.submit(UserOrder.createFromCart(cart));
+        var bad = UserOrder.createFromCart(cart);
+        bad.setUser(User.builder().id(-1L).build());
+        var rejected = pipeline.submit(bad);
+
+        pipeline.start();
+
+        assertNotNull(good.get(10, TimeUnit.SECONDS).getId());
+        assertEquals(true, rejected.handle((order, e) -> e != null).get(10, TimeUnit.SECONDS));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    public void submitKeepsWritingAfterABatchThrowsAnError() throws Exception {
+        pipeline = new OrderSubmissionPipeline(entityManager, transactionManager, 50, 100, 1);
+        var broken = UserOrder.createFromCart(cart);
+        broken.setItems(new ArrayList<OrderLine>() {
+            @Override
+            public Object[] toArray() {
+                throw new AssertionError("broken order");
+            }
+        });
+        var failed = pipeline.submit(broken);
+
+        pipeline.start();
+
+        assertEquals(true, failed.handle((order, e) -> e instanceof AssertionError).get(10, TimeUnit.SECONDS));
+        assertNotNull(pipeline.submit(UserOrder.createFromCart(cart)).get(10, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    public void stopFailsOrdersStillQueuedAndRejectsNewOnes() throws Exception {
+        pipeline = new OrderSubmissionPipeline(entityManager, transactionManager, 50, 100, 1);
+        var queued = pipeline.submit(UserOrder.createFromCart(cart));
+
+        pipeline.stop();
+
+        assertEquals(true, queued.handle((order, e) -> e instanceof RejectedExecutionException).get(1, TimeUnit.SECONDS));
+        try {
+            pipeline.submit(UserOrder.createFromCart(cart));
+            fail("expected the stopped pipeline to reject the order");
+        } catch (RejectedExecutionException expected) {
+            // stopped
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void submitRejectsOrdersWhenTheQueueIsFull() {
+        pipeline = new OrderSubmissionPipeline(entityManager, transactionManager, 50, 1, 1);
+        pipeline.submit(UserOrder.createFromCart(cart));
+        pipeline.submit(UserOrder.createFromCart(cart));
+    }
+}
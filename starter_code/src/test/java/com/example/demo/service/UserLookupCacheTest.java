@@ -0,0 +1,73 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.var;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserLookupCacheTest {
+    @Mock private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserLookupCache userLookupCache;
+
+    @Before
+    public void init() {
+        userLookupCache = new UserLookupCache(userRepository, 100, meterRegistry);
+    }
+
+    @Test
+    public void findReturnsTheUserAndCartIds() {
+        var cart = Cart.builder().id(7L).build();
+        when(userRepository.findByUsername("maggie")).thenReturn(User.builder().id(3L).username("maggie").cart(cart).build());
+
+        var key = userLookupCache.find("maggie").get();
+
+        assertEquals(new UserKey(3L, 7L), key);
+    }
+
+    @Test
+    public void findQueriesTheRepositoryOncePerUsername() {
+        when(userRepository.findByUsername("maggie")).thenReturn(User.builder().id(3L).username("maggie").build());
+
+        userLookupCache.find("maggie");
+        userLookupCache.find("maggie");
+
+        verify(userRepository, times(1)).findByUsername("maggie");
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "userLookup").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void findDoesNotCacheUnknownUsernames() {
+        when(userRepository.findByUsername("maggie")).thenReturn(null);
+
+        assertFalse(userLookupCache.find("maggie").isPresent());
+        assertFalse(userLookupCache.find("maggie").isPresent());
+
+        verify(userRepository, times(2)).findByUsername("maggie");
+    }
+
+    @Test
+    public void invalidateForcesTheNextLookupToHitTheRepository() {
+        when(userRepository.findByUsername("maggie")).thenReturn(User.builder().id(3L).username("maggie").build());
+        userLookupCache.find("maggie");
+
+        userLookupCache.invalidate("maggie");
+        userLookupCache.find("maggie");
+
+        verify(userRepository, times(2)).findByUsername("maggie");
+    }
+}